@@ -1,6 +1,7 @@
 package com.magikman.pongai;
 
 import com.badlogic.gdx.Gdx;
+import com.magikman.pongai.simulation.Field;
 
 public class Resources {
 	
@@ -8,4 +9,11 @@ public class Resources {
 	public static float width = Gdx.graphics.getWidth();
 	
 	public static float spRatio = Gdx.graphics.getHeight() / 12;
+	
+	/**
+	 * @return A field the size of the window
+	 */
+	public static Field screenField() {
+		return new Field((int)width, (int)height);
+	}
 }
@@ -1,11 +1,11 @@
 package com.magikman.pongai.controller;
 
-import com.magikman.pongai.gameObjects.Paddle;
+import com.magikman.pongai.simulation.PaddleModel;
 
 public abstract class Controller {
 	
-	Paddle paddle;
-	public Controller(Paddle paddle) {
+	PaddleModel paddle;
+	public Controller(PaddleModel paddle) {
 		this.paddle = paddle;
 	}
 	
@@ -21,5 +21,9 @@ public abstract class Controller {
 		
 	}
 	
-	public abstract void handleInput();
+	/**
+	 * Moves the paddle for this frame
+	 * @param dt Length of the frame in seconds
+	 */
+	public abstract void handleInput(float dt);
 }
@@ -2,13 +2,13 @@ package com.magikman.pongai.controller;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
-import com.magikman.pongai.gameObjects.Paddle;
+import com.magikman.pongai.simulation.PaddleModel;
 
 public class HumanController extends Controller{
 
 	boolean arrowKeys;
 	
-	public HumanController(Paddle paddle, boolean arrowKeys) {
+	public HumanController(PaddleModel paddle, boolean arrowKeys) {
 		super(paddle);
 		
 		this.arrowKeys = arrowKeys;
@@ -16,7 +16,7 @@ public class HumanController extends Controller{
 	}
 
 	@Override
-	public void handleInput() {
+	public void handleInput(float dt) {
 		// TODO Auto-generated method stub
 		if(arrowKeys) {
 			if(Gdx.input.isKeyPressed(Input.Keys.DPAD_UP)) super.upInput();
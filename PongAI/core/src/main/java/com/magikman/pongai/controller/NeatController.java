@@ -1,45 +1,46 @@
 package com.magikman.pongai.controller;
 
-import com.badlogic.gdx.Gdx;
 import com.magikman.pongai.gameObjects.Game;
-import com.magikman.pongai.gameObjects.Paddle;
 import com.magikman.pongai.neat.neat.Client;
+import com.magikman.pongai.simulation.PaddleModel;
 
 public class NeatController extends Controller {
 
 	Client player;
-	double[] networkInputs;
+	double[] networkInputs = new double[Game.AI_INPUTS];
+	double[] networkOutputs;
 	Game vision;
 	boolean isLeft;
 	
-	public NeatController(Paddle paddle, Client player, Game vision, boolean isLeft) {
+	public NeatController(PaddleModel paddle, Client player, Game vision, boolean isLeft) {
 		super(paddle);
 		// TODO Auto-generated constructor stub
 		this.player = player;
 		this.vision = vision;
 		this.isLeft = isLeft;
+		this.networkOutputs = new double[player.getGenome().getNeat().getOutput_size()];
 	}
 	
 	@Override
-	public void handleInput() {
+	public void handleInput(float dt) {
 		// TODO Auto-generated method stub
 		
-		networkInputs = vision.getAIInputs(isLeft);
-		double[] outputs = player.calculate(networkInputs);
+		vision.getAIInputs(isLeft, networkInputs);
+		player.calculate(networkInputs, networkOutputs);
 		
 		int index = 0;
-		for(int x = 0; x < outputs.length; x++) {
-			if(outputs[x] > outputs[index]) index = x;
+		for(int x = 0; x < networkOutputs.length; x++) {
+			if(networkOutputs[x] > networkOutputs[index]) index = x;
 		}
 		
 		switch(index) {
 		case 0:
 			super.upInput();
-			//increaseFitness(Gdx.graphics.getDeltaTime() * -2);
+			//increaseFitness(dt * -2);
 			break;
 		case 2:
 			super.downInput();
-			//increaseFitness(Gdx.graphics.getDeltaTime() * -2);
+			//increaseFitness(dt * -2);
 			break;
 		}
 		
@@ -1,49 +1,29 @@
 package com.magikman.pongai.controller;
 
-import com.badlogic.gdx.Gdx;
 import com.magikman.pongai.gameObjects.Game;
-import com.magikman.pongai.gameObjects.Paddle;
+import com.magikman.pongai.simulation.NetworkPlayer;
+import com.magikman.pongai.simulation.PaddleModel;
 
 import neuroEvo.GenomeNet;
 
 public class NeuroEvoController extends Controller {
 
-	GenomeNet player;
-	double[] networkInputs;
-	Game vision;
-	boolean isLeft;
+	NetworkPlayer player;
 	
-	public NeuroEvoController(Paddle paddle, GenomeNet player, Game vision, boolean isLeft) {
+	public NeuroEvoController(PaddleModel paddle, GenomeNet player, Game vision, boolean isLeft) {
 		super(paddle);
 		// TODO Auto-generated constructor stub
-		this.player = player;
-		this.vision = vision;
-		this.isLeft = isLeft;
+		this.player = new NetworkPlayer(vision.getMatch(), paddle, player, isLeft);
 	}
 	
 	@Override
-	public void handleInput() {
+	public void handleInput(float dt) {
 		// TODO Auto-generated method stub
-		
-		networkInputs = vision.getAIInputs(isLeft);
-		double[] outputs = player.calculate(networkInputs);
-		
-		int index = 0;
-		for(int x = 0; x < outputs.length; x++) {
-			if(outputs[x] > outputs[index]) index = x;
-		}
-		
-		switch(index) {
-		case 0:
-			super.upInput();
-			increaseFitness(Gdx.graphics.getDeltaTime() * -8);
-			break;
-		case 2:
-			super.downInput();
-			increaseFitness(Gdx.graphics.getDeltaTime() * -8);
-			break;
-		}
-		
+		player.handleInput(dt);
+	}
+	
+	public void reward(int scored, boolean hit, float dt) {
+		player.reward(scored, hit, dt);
 	}
 	
 	public void setFitness(double fitness) {
@@ -1,23 +1,32 @@
 package com.magikman.pongai.gameObjects;
 
+import java.util.SplittableRandom;
+
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.math.Rectangle;
 import com.magikman.pongai.Resources;
 import com.magikman.pongai.controller.Controller;
 import com.magikman.pongai.controller.HumanController;
 import com.magikman.pongai.controller.NeuroEvoController;
+import com.magikman.pongai.simulation.Field;
+import com.magikman.pongai.simulation.Match;
 
 import neuroEvo.GenomeNet;
 
 public class Game {
 	
-	Controller player1, player2;
-	Paddle leftPaddle, rightPaddle;
-	Ball gameBall;
+	/**
+	 * Number of values given to the networks by getAIInputs
+	 */
+	public static final int AI_INPUTS = Match.AI_INPUTS;
 	
-	int winScore;
+	Controller player1, player2;
+	Match match;
 	
-	int leftScore, rightScore;
+	/**
+	 * Sprites drawing the match, only created on the first render so games that are never drawn need no OpenGL context
+	 */
+	Ball gameBall;
+	Paddle leftPaddle, rightPaddle;
 	
 	boolean aiLeft;
 	boolean aiRight;
@@ -26,55 +35,48 @@ public class Game {
 		aiLeft = false;
 		aiRight = false;
 		
-		this.winScore = winScore;
-		this.leftScore = 0;
-		this.rightScore = 0;
-		
-		this.gameBall = new Ball();
-		
-		this.leftPaddle = new Paddle(gameBall, true);
-		this.rightPaddle = new Paddle(gameBall, false);
+		this.match = new Match(Resources.screenField(), winScore);
 		
-		player1 = new HumanController(leftPaddle, false);
+		player1 = new HumanController(match.getLeftPaddle(), false);
 		
-		player2 = new HumanController(rightPaddle, true);
+		player2 = new HumanController(match.getRightPaddle(), true);
 		
 	}
 	
 	public Game(GenomeNet mlPlayer1, GenomeNet mlPlayer2, int winScore) {
+		this(mlPlayer1, mlPlayer2, winScore, Resources.screenField());
+	}
+	
+	/**
+	 * Creates a game between two networks on a given field, which works without libGDX as long as it is never rendered
+	 */
+	public Game(GenomeNet mlPlayer1, GenomeNet mlPlayer2, int winScore, Field field) {
+		this(mlPlayer1, mlPlayer2, winScore, field, new SplittableRandom());
+	}
+	
+	/**
+	 * Creates a game between two networks whose serves come from the given random, so it can be replayed exactly
+	 */
+	public Game(GenomeNet mlPlayer1, GenomeNet mlPlayer2, int winScore, Field field, SplittableRandom random) {
 		
-		this.winScore = winScore;
-		this.leftScore = 0;
-		this.rightScore = 0;
-		
-		this.gameBall = new Ball();
-		
-		this.leftPaddle = new Paddle(gameBall, true);
-		this.rightPaddle = new Paddle(gameBall, false);
+		this.match = new Match(field, winScore, random);
 		
-		player1 = new NeuroEvoController(leftPaddle, mlPlayer1, this, true);
-		player2 = new NeuroEvoController(rightPaddle, mlPlayer2, this, false);
+		player1 = new NeuroEvoController(match.getLeftPaddle(), mlPlayer1, this, true);
+		player2 = new NeuroEvoController(match.getRightPaddle(), mlPlayer2, this, false);
 		
 		aiRight = true;
 		aiLeft = true;
 	}
 	
 	public Game(GenomeNet mlPlayer, int winScore, boolean leftAI) {
-		this.winScore = winScore;
-		this.leftScore = 0;
-		this.rightScore = 0;
-		
-		this.gameBall = new Ball();
-		
-		this.leftPaddle = new Paddle(gameBall, true);
-		this.rightPaddle = new Paddle(gameBall, false);
+		this.match = new Match(Resources.screenField(), winScore);
 		
 		if(leftAI) {
-			player1 = new NeuroEvoController(leftPaddle, mlPlayer, this, true);
-			player2 = new HumanController(rightPaddle, true);
+			player1 = new NeuroEvoController(match.getLeftPaddle(), mlPlayer, this, true);
+			player2 = new HumanController(match.getRightPaddle(), true);
 		} else {
-			player1 = new NeuroEvoController(rightPaddle, mlPlayer, this, true);
-			player2 = new HumanController(leftPaddle, true);
+			player1 = new NeuroEvoController(match.getRightPaddle(), mlPlayer, this, true);
+			player2 = new HumanController(match.getLeftPaddle(), true);
 		}
 		
 		aiLeft = leftAI;
@@ -82,108 +84,68 @@ public class Game {
 	}
 	
 	public int[] getScores() {
-		return new int[] {leftScore, rightScore};
+		return new int[] {match.getLeftScore(), match.getRightScore()};
 	}
 	
 	public void update(float dt) {
-		gameBall.update(dt);
-		leftPaddle.update(dt);
-		rightPaddle.update(dt);
-		
-		if(gameBall.getX() > Resources.width) {
-			reset();
-			leftScore++;
-			
-			if(aiLeft) {
-				((NeuroEvoController)player1).increaseFitness(100);
-				
-			}
-			
-			if(aiRight) {
-				((NeuroEvoController)player2).increaseFitness(-70);
-			}
-		}
-		if((gameBall.getX() + gameBall.getHitbox().width) < 0) {
-			reset();
-			rightScore++;
-			
-			if(aiRight) {
-				((NeuroEvoController)player2).increaseFitness(100);
-				
-			}
-			
-			if(aiLeft) {
-				((NeuroEvoController)player1).increaseFitness(-70);
-			}
-		}
+		int scored = match.update(dt);
 		
-		if(aiLeft) {
-			((NeuroEvoController)player1).increaseFitness(5 * dt);
-			
-			if(leftPaddle.justHit) ((NeuroEvoController)player1).increaseFitness(25);
-			
-		}
-		
-		if(aiRight) {
-			((NeuroEvoController)player2).increaseFitness(5 * dt);
-			
-			if(rightPaddle.justHit) ((NeuroEvoController)player2).increaseFitness(25);
-		}
+		if(aiLeft) ((NeuroEvoController)player1).reward(scored, match.getLeftPaddle().justHit, dt);
+		if(aiRight) ((NeuroEvoController)player2).reward(-scored, match.getRightPaddle().justHit, dt);
 	}
 	
 	public void reset() {
-		gameBall.reset();
-		leftPaddle.reset();
-		rightPaddle.reset();
+		match.reset();
 	}
 	
 	public int getWinner() {
-		if(leftScore >= winScore) return 1;
-		else if(rightScore >= winScore) return -1;
-		else return 0;
+		return match.getWinner();
+	}
+	
+	public Match getMatch() {
+		return match;
 	}
 	
 	public double[] getAIInputs(boolean left) {
-		double ballXSpeed = gameBall.getVelo().x;
-		double ballYSpeed = gameBall.getVelo().y;
-		Rectangle ballPosData = gameBall.getHitbox();
-		Rectangle paddlePos;
-		
-		double ballX;
-		double ballY = gameBall.getCenterY();
-		
-		if(left) {
-			paddlePos = leftPaddle.getHitbox();
-			ballX = ballPosData.x;
-		}
-		else {
-			paddlePos = rightPaddle.getHitbox();
-			ballX = ballPosData.x + ballPosData.width;
-		}
-		
-		double paddleBot = paddlePos.y;
-		double paddleMid = paddlePos.y + paddlePos.height / 2;
-		double paddleTop = paddlePos.y + paddlePos.height;
+		double[] inputs = new double[AI_INPUTS];
+		getAIInputs(left, inputs);
 		
-		double topDis = ballY - paddleTop;
-		double midDis = ballY - paddleMid;
-		double botDis = ballY - paddleBot;
-		
-		return new double[] {paddleMid, ballX, ballY, ballXSpeed, ballYSpeed, topDis, midDis, botDis};
+		return inputs;
 	}
 	
-	public void handleInput() {
-		player1.handleInput();
-		player2.handleInput();
+	/**
+	 * Fills a caller owned array with the network inputs for one side, so no array is allocated every frame
+	 * @param left True to get the inputs from the left paddle's point of view
+	 * @param inputs Array of at least AI_INPUTS values to write into
+	 */
+	public void getAIInputs(boolean left, double[] inputs) {
+		match.getAIInputs(left, inputs);
+	}
+	
+	/**
+	 * Lets both players move their paddles
+	 * @param dt Length of the frame in seconds
+	 */
+	public void handleInput(float dt) {
+		player1.handleInput(dt);
+		player2.handleInput(dt);
 	}
 	
 	public void render(SpriteBatch sb) {
+		if(gameBall == null) {
+			gameBall = new Ball(match.getBall());
+			leftPaddle = new Paddle(match.getLeftPaddle());
+			rightPaddle = new Paddle(match.getRightPaddle());
+		}
+		
 		gameBall.render(sb);
 		leftPaddle.render(sb);
 		rightPaddle.render(sb);
 	}
 	
 	public void dispose() {
+		if(gameBall == null) return;
+		
 		gameBall.dispose();
 		leftPaddle.dispose();
 		rightPaddle.dispose();
@@ -3,105 +3,41 @@ package com.magikman.pongai.gameObjects;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.math.Rectangle;
-import com.magikman.pongai.Resources;
+import com.magikman.pongai.simulation.PaddleModel;
 
+/**
+ * Draws a PaddleModel, or a paddle anywhere, all of the paddle's state, movement and collision lives in the model
+ */
 public class Paddle {
 	
-	Ball gameBall;
-	Sprite paddle;
-	
-	final float speed = 500;
-	float currSpeed = 0;
+	PaddleModel model;
 	
-	boolean left;
+	Sprite paddle;
 	
-	public boolean justHit = false;
+	public Paddle(PaddleModel model) {
+		this(model.getWidth(), model.getHeight());
+		this.model = model;
+	}
 	
-	public Paddle(Ball gameBall, boolean left) {
+	/**
+	 * Creates a paddle sprite without a model, which can only be drawn at given positions
+	 */
+	public Paddle(float width, float height) {
 		Texture img = new Texture("C:\\Users\\Owner\\LibGDX Projects\\PongAI\\assets\\pongPaddle.png");
 		paddle = new Sprite(img);
-		this.left = left;
-		
-		float paddleR = Resources.spRatio / img.getHeight();
-		
-		float paddleW = paddleR * img.getWidth();
-		float paddleH = paddleR * img.getHeight();
-		
-		paddle.setSize(paddleW, paddleH);
+		paddle.setSize(width, height);
 		paddle.setOriginCenter();
-		
-		reset();
-		
-		this.gameBall = gameBall;
-	}
-	
-	public void reset() {
-		paddle.setCenterY(Resources.height / 2);
-		
-		if(left) {
-			paddle.setCenterX(Resources.width / 8);
-		} else {
-			paddle.setCenterX(Resources.width / 8 * 7);
-		}
-	}
-	
-	public void update(float dt) {
-		currSpeed = speed * dt;
-		
-		if(paddle.getY() < 0) paddle.setY(0);
-		if(paddle.getY() + paddle.getHeight() > Resources.height) paddle.setY(Resources.height - paddle.getHeight());
-		
-		justHit = checkBounce();
-	}
-	
-	public boolean checkBounce() {
-		if(paddle.getBoundingRectangle().overlaps(gameBall.getHitbox()) && !gameBall.getInvulnerable()  ) {
-			float maxDis = (paddle.getHeight() / 2) + (gameBall.getHeight() / 2);
-			float add = 1;
-			if(gameBall.getCenterY() < getCenterY()) {
-				maxDis *= -1;
-				add = -1;
-			}
-			
-			float inverseDis = maxDis - (gameBall.getCenterY() - getCenterY());
-			inverseDis += add;
-			/*
-			if(Math.abs(inverseDis) < 1) {
-				if(inverseDis > 0) inverseDis = 1;
-				else inverseDis = -1;
-			}
-			*/
-			
-			float yVector = 2000 / inverseDis;
-			
-			//System.out.println(yVector);
-			//System.out.println(inverseDis);
-			gameBall.bounce(yVector);
-			
-			return true;
-		}
-		
-		return false;
-	}
-	
-	public Rectangle getHitbox() {
-		return paddle.getBoundingRectangle();
-	}
-	
-	public float getCenterY() {
-		return paddle.getY() + (paddle.getHeight() / 2);
 	}
 	
-	public void moveUp() {
-		paddle.setY(paddle.getY() + currSpeed);
-	}
-	
-	public void moveDown() {
-		paddle.setY(paddle.getY() - currSpeed);
+	public void render(SpriteBatch sb) {
+		render(sb, model.getX(), model.getY());
 	}
 	
-	public void render(SpriteBatch sb) {
+	/**
+	 * Draws the paddle with its bottom left corner at the given position
+	 */
+	public void render(SpriteBatch sb, float x, float y) {
+		paddle.setPosition(x, y);
 		paddle.draw(sb);
 	}
 	
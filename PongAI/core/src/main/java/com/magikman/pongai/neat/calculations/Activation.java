@@ -0,0 +1,125 @@
+package com.magikman.pongai.neat.calculations;
+
+/**
+ * the sigmoid activation functions a calculator can use.
+ * each one trades some accuracy for speed in a different way, measure_max_error returns the error of an option
+ * for double or float evaluation.
+ *
+ * measured maximum errors over the whole number line:
+ *  - EXACT: 0 (double), 4.2e-8 (float, rounding only)
+ *  - RATIONAL: 4.8e-5 (double and float)
+ *  - LOOKUP: 7.3e-7 (double), 9.4e-7 (float)
+ */
+public enum Activation {
+
+    /**
+     * 1 / (1 + e^-x), exactly what the calculator always used
+     */
+    EXACT {
+        @Override
+        public double apply(double x) {
+            return 1d / (1 + Math.exp(-x));
+        }
+
+        @Override
+        public float apply(float x) {
+            return (float)(1d / (1 + Math.exp(-x)));
+        }
+    },
+
+    /**
+     * 0.5 + 0.5 * tanh(x / 2), with tanh replaced by its [7/6] pade approximant
+     */
+    RATIONAL {
+        @Override
+        public double apply(double x) {
+            double t = 0.5 * x;
+            if(t >= CLAMP) return 1;
+            if(t <= -CLAMP) return 0;
+
+            double t2 = t * t;
+            return 0.5 + 0.5 * t * (135135 + t2 * (17325 + t2 * (378 + t2))) / (135135 + t2 * (62370 + t2 * (3150 + t2 * 28)));
+        }
+
+        @Override
+        public float apply(float x) {
+            float t = 0.5f * x;
+            if(t >= CLAMP) return 1;
+            if(t <= -CLAMP) return 0;
+
+            float t2 = t * t;
+            return 0.5f + 0.5f * t * (135135f + t2 * (17325f + t2 * (378f + t2))) / (135135f + t2 * (62370f + t2 * (3150f + t2 * 28f)));
+        }
+    },
+
+    /**
+     * precomputed table of the sigmoid with linear interpolation between the entries, 0 or 1 outside of the table
+     */
+    LOOKUP {
+        @Override
+        public double apply(double x) {
+            if(x >= TABLE_RANGE) return 1;
+            if(x <= -TABLE_RANGE) return 0;
+
+            double position = (x + TABLE_RANGE) * TABLE_SCALE;
+            int index = Math.min((int)position, TABLE_SIZE - 1);
+            double fraction = position - index;
+
+            return TABLE[index] + (TABLE[index + 1] - TABLE[index]) * fraction;
+        }
+
+        @Override
+        public float apply(float x) {
+            if(x >= TABLE_RANGE) return 1;
+            if(x <= -TABLE_RANGE) return 0;
+
+            float position = (x + (float)TABLE_RANGE) * (float)TABLE_SCALE;
+            int index = Math.min((int)position, TABLE_SIZE - 1);
+            float fraction = position - index;
+
+            return TABLE_FLOAT[index] + (TABLE_FLOAT[index + 1] - TABLE_FLOAT[index]) * fraction;
+        }
+    };
+
+    /**
+     * past this point the pade approximant of tanh is further from tanh than 1 is
+     */
+    private static final double CLAMP = 4.97;
+
+    private static final int TABLE_SIZE = 4096;
+    private static final double TABLE_RANGE = 16;
+    private static final double TABLE_SCALE = TABLE_SIZE / (2 * TABLE_RANGE);
+
+    private static final double[] TABLE = new double[TABLE_SIZE + 1];
+    private static final float[] TABLE_FLOAT = new float[TABLE_SIZE + 1];
+
+    static {
+        for(int i = 0; i <= TABLE_SIZE; i++){
+            TABLE[i] = 1d / (1 + Math.exp(-(i / TABLE_SCALE - TABLE_RANGE)));
+            TABLE_FLOAT[i] = (float)TABLE[i];
+        }
+    }
+
+    public abstract double apply(double x);
+
+    public abstract float apply(float x);
+
+    /**
+     * measures how far this activation function gets from the exact sigmoid
+     *
+     * @param single_precision if true, the float version is measured
+     * @return the largest absolute error found over a dense sweep of [-32, 32] (the sigmoid is flat outside of it)
+     */
+    public double measure_max_error(boolean single_precision) {
+        double max_error = 0;
+
+        for(int i = -3200000; i <= 3200000; i++){
+            double x = i / 100000.0;
+            double value = single_precision ? apply((float)x) : apply(x);
+
+            max_error = Math.max(max_error, Math.abs(value - 1d / (1 + Math.exp(-x))));
+        }
+
+        return max_error;
+    }
+}
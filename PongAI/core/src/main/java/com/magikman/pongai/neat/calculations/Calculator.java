@@ -1,6 +1,6 @@
 package com.magikman.pongai.neat.calculations;
 
-import com.magikman.pongai.neat.data_structures.RandomHashSet;
+import com.magikman.pongai.neat.data_structures.GeneSet;
 import com.magikman.pongai.neat.genome.ConnectionGene;
 import com.magikman.pongai.neat.genome.Genome;
 import com.magikman.pongai.neat.genome.NodeGene;
@@ -9,70 +9,240 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 
+/**
+ * compiles a genome into compressed sparse rows so it can be evaluated with one loop over primitive arrays.
+ *
+ * nodes are numbered inputs first, then the hidden nodes by ascending x, then the outputs. every connection goes
+ * from a lower x to a higher x, so this order is topological and each node only reads values that were already
+ * calculated during the same call.
+ */
 public class Calculator {
 
-    private ArrayList<Node> input_nodes = new ArrayList<>();
-    private ArrayList<Node> hidden_nodes = new ArrayList<>();
-    private ArrayList<Node> output_nodes = new ArrayList<>();
+    private int input_size;
+    private int output_size;
+
+    /**
+     * the value of every node, indexed in calculation order
+     */
+    private double[] values;
+
+    /**
+     * the incoming connections of calculated node i (node input_size + i) are stored in
+     * [offsets[i], offsets[i + 1]) of sources and weights
+     */
+    private int[] offsets;
+    private int[] sources;
+    private double[] weights;
+
+    /**
+     * the genome this calculator was built from, and the versions of it that are compiled in
+     */
+    private Genome genome;
+    private int structure_version;
+    private int weight_version;
+
+    /**
+     * the slot in weights of every connection of the genome (by its position in innovation order),
+     * or -1 for disabled connections
+     */
+    private int[] slots;
+
+    private Activation activation;
+
+    /**
+     * float copies of the values and weights, only used when the calculator evaluates in single precision
+     */
+    private float[] values_float;
+    private float[] weights_float;
 
     public Calculator(Genome g){
-        RandomHashSet<NodeGene> nodes = g.getNodes();
-        RandomHashSet<ConnectionGene> cons = g.getConnections();
+        this(g, g.getNeat().getActivation(), g.getNeat().isSinglePrecision());
+    }
 
-        HashMap<Integer, Node> nodeHashMap = new HashMap<>();
+    /**
+     * @param activation the activation function of every calculated node
+     * @param single_precision if true, the values and weights are floats instead of doubles
+     */
+    public Calculator(Genome g, Activation activation, boolean single_precision){
+        this.activation = activation;
+        genome = g;
+        structure_version = g.getStructure_version();
+        weight_version = g.getWeight_version();
 
-        for(NodeGene n:nodes.getData()){
+        GeneSet<NodeGene> nodes = g.getNodes();
+        GeneSet<ConnectionGene> cons = g.getConnections();
 
-            Node node = new Node(n.getX());
-            nodeHashMap.put(n.getInnovation_number(),node);
+        ArrayList<NodeGene> input_nodes = new ArrayList<>();
+        ArrayList<NodeGene> hidden_nodes = new ArrayList<>();
+        ArrayList<NodeGene> output_nodes = new ArrayList<>();
 
+        for(NodeGene n:nodes){
             if(n.getX() <= 0.1){
-                input_nodes.add(node);
+                input_nodes.add(n);
             }else if(n.getX() >= 0.9){
-                output_nodes.add(node);
+                output_nodes.add(n);
             }else{
-                hidden_nodes.add(node);
+                hidden_nodes.add(n);
             }
         }
 
-        hidden_nodes.sort(new Comparator<Node>() {
+        hidden_nodes.sort(new Comparator<NodeGene>() {
             @Override
-            public int compare(Node o1, Node o2) {
-                return o1.compareTo(o2);
+            public int compare(NodeGene o1, NodeGene o2) {
+                return Double.compare(o1.getX(), o2.getX());
             }
         });
 
-        for(ConnectionGene c:cons.getData()){
-            NodeGene from = c.getFrom();
-            NodeGene to = c.getTo();
+        input_size = input_nodes.size();
+        output_size = output_nodes.size();
+
+        HashMap<Integer, Integer> index = new HashMap<>();
+        int node_count = 0;
+        for(NodeGene n:input_nodes) index.put(n.getInnovation_number(), node_count++);
+        for(NodeGene n:hidden_nodes) index.put(n.getInnovation_number(), node_count++);
+        for(NodeGene n:output_nodes) index.put(n.getInnovation_number(), node_count++);
+
+        values = new double[node_count];
+        offsets = new int[node_count - input_size + 1];
 
-            Node node_from = nodeHashMap.get(from.getInnovation_number());
-            Node node_to = nodeHashMap.get(to.getInnovation_number());
+        //counting sort of the enabled connections by their target, keeping the genome's order for each target
+        int[] from = new int[cons.size()];
+        int[] to = new int[cons.size()];
+        int enabled = 0;
 
-            Connection con = new Connection(node_from, node_to);
-            con.setWeight(c.getWeight());
-            con.setEnabled(c.isEnabled());
+        for(ConnectionGene c:cons){
+            if(!c.isEnabled()) continue;
+
+            from[enabled] = index.get(c.getFrom().getInnovation_number());
+            to[enabled] = index.get(c.getTo().getInnovation_number()) - input_size;
+            offsets[to[enabled] + 1]++;
+            enabled++;
+        }
 
-            node_to.getConnections().add(con);
+        for(int i = 1; i < offsets.length; i++){
+            offsets[i] += offsets[i - 1];
+        }
+
+        sources = new int[enabled];
+        weights = new double[enabled];
+        slots = new int[cons.size()];
+
+        int[] fill = new int[offsets.length - 1];
+        System.arraycopy(offsets, 0, fill, 0, fill.length);
+
+        int i = 0;
+        int k = 0;
+        for(ConnectionGene c:cons){
+            if(!c.isEnabled()){
+                slots[k++] = -1;
+                continue;
+            }
+
+            int slot = fill[to[i]]++;
+            sources[slot] = from[i];
+            weights[slot] = c.getWeight();
+            slots[k++] = slot;
+            i++;
+        }
+
+        if(single_precision){
+            values_float = new float[node_count];
+            weights_float = new float[enabled];
+            copy_float_weights();
         }
     }
 
+    private void copy_float_weights(){
+        for(int i = 0; i < weights.length; i++){
+            weights_float[i] = (float)weights[i];
+        }
+    }
+
+    /**
+     * @param g the genome to check
+     * @return true if this calculator was built from g and its structure did not change since
+     */
+    public boolean isStructureCurrent(Genome g){
+        return genome == g && structure_version == g.getStructure_version();
+    }
+
+    /**
+     * @return true if the compiled weights match the genome's weights
+     */
+    public boolean isWeightCurrent(){
+        return weight_version == genome.getWeight_version();
+    }
+
+    /**
+     * copies the current weights of the genome into the compiled rows without rebuilding them.
+     * only valid while the structure is current
+     */
+    public void refresh_weights(){
+        int k = 0;
+        for(ConnectionGene c:genome.getConnections()){
+            if(slots[k] != -1) weights[slots[k]] = c.getWeight();
+            k++;
+        }
+        if(weights_float != null) copy_float_weights();
+        weight_version = genome.getWeight_version();
+    }
+
     public double[] calculate(double... input){
+        double[] output = new double[output_size];
+        calculate(input, output);
+        return output;
+    }
+
+    /**
+     * calculates the outputs into a caller owned array instead of allocating one
+     *
+     * @param input must have the size of the input layer
+     * @param output must be at least the size of the output layer
+     */
+    public void calculate(double[] input, double[] output){
+
+        if(input.length != input_size) throw new RuntimeException("Data doesnt fit");
+        if(values_float != null){
+            calculate_float(input, output);
+            return;
+        }
+        System.arraycopy(input, 0, values, 0, input_size);
+
+        for(int n = 0; n < offsets.length - 1; n++){
+            double s = 0;
+            for(int c = offsets[n]; c < offsets[n + 1]; c++){
+                s += weights[c] * values[sources[c]];
+            }
+            values[input_size + n] = activation.apply(s);
+        }
 
-        if(input.length != input_nodes.size()) throw new RuntimeException("Data doesnt fit");
-        for(int i = 0; i < input_nodes.size(); i++){
-            input_nodes.get(i).setOutput(input[i]);
+        System.arraycopy(values, values.length - output_size, output, 0, output_size);
+    }
+
+    /**
+     * same as calculate, but in single precision. only the inputs and outputs are doubles
+     */
+    private void calculate_float(double[] input, double[] output){
+        for(int i = 0; i < input_size; i++){
+            values_float[i] = (float)input[i];
         }
-        for(Node n:hidden_nodes){
-            n.calculate();
+
+        for(int n = 0; n < offsets.length - 1; n++){
+            float s = 0;
+            for(int c = offsets[n]; c < offsets[n + 1]; c++){
+                s += weights_float[c] * values_float[sources[c]];
+            }
+            values_float[input_size + n] = activation.apply(s);
         }
 
-        double[] output = new double[output_nodes.size()];
-        for(int i = 0; i < output_nodes.size(); i++){
-            output_nodes.get(i).calculate();
-            output[i] = output_nodes.get(i).getOutput();
+        int first_output = values_float.length - output_size;
+        for(int i = 0; i < output_size; i++){
+            output[i] = values_float[first_output + i];
         }
-        return output;
     }
 
-}
\ No newline at end of file
+    public int getOutputSize() {
+        return output_size;
+    }
+
+}
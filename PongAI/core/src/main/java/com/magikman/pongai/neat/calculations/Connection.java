@@ -1,49 +0,0 @@
-package com.magikman.pongai.neat.calculations;
-
-
-public class Connection {
-
-    private Node from;
-    private Node to;
-
-    private double weight;
-    private boolean enabled = true;
-
-    public Connection(Node from, Node to) {
-        this.from = from;
-        this.to = to;
-    }
-
-    public Node getFrom() {
-        return from;
-    }
-
-    public void setFrom(Node from) {
-        this.from = from;
-    }
-
-    public Node getTo() {
-        return to;
-    }
-
-    public void setTo(Node to) {
-        this.to = to;
-    }
-
-    public double getWeight() {
-        return weight;
-    }
-
-    public void setWeight(double weight) {
-        this.weight = weight;
-    }
-
-    public boolean isEnabled() {
-        return enabled;
-    }
-
-    public void setEnabled(boolean enabled) {
-        this.enabled = enabled;
-    }
-
-}
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.magikman.pongai.neat.data_structures;
+
+import com.magikman.pongai.neat.genome.Gene;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+/**
+ * set of genes that is always iterated in innovation order.
+ *
+ * the genes are kept three times: a hash map from every gene to its position in an unordered list,
+ * so contains and random_element are O(1), and a tree map by innovation number for the ordered view,
+ * so add and remove are O(log n). removing swaps the last gene of the list into the free position.
+ */
+public class GeneSet<T extends Gene> implements Iterable<T> {
+
+    private HashMap<T, Integer> positions;
+    private ArrayList<T> data;
+    private TreeMap<Integer, T> sorted;
+
+    public GeneSet(){
+        positions = new HashMap<>();
+        data = new ArrayList<>();
+        sorted = new TreeMap<>();
+    }
+
+    public boolean contains(T object){
+        return positions.containsKey(object);
+    }
+
+    public T random_element(){
+        if(data.size() > 0){
+            return data.get((int)(Math.random() * size()));
+        }
+        return null;
+    }
+
+    public T random_element(SplittableRandom random){
+        if(data.size() > 0){
+            return data.get(random.nextInt(size()));
+        }
+        return null;
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * adds a gene at its place in innovation order, unless the set already contains it
+     */
+    public void add(T object){
+        if(positions.containsKey(object)) return;
+
+        positions.put(object, data.size());
+        data.add(object);
+        sorted.put(object.getInnovation_number(), object);
+    }
+
+    public void remove(T object){
+        Integer position = positions.remove(object);
+        if(position == null) return;
+
+        T last = data.remove(data.size() - 1);
+        if(position < data.size()){
+            data.set(position, last);
+            positions.put(last, position);
+        }
+        sorted.remove(object.getInnovation_number());
+    }
+
+    /**
+     * replaces a gene with an equal one (same innovation number) in the same position,
+     * used to swap shared genes for their changed copies
+     */
+    public void replace(T old_gene, T new_gene){
+        Integer position = positions.remove(old_gene);
+        if(position == null) return;
+
+        positions.put(new_gene, position);
+        data.set(position, new_gene);
+        sorted.put(new_gene.getInnovation_number(), new_gene);
+    }
+
+    public void clear() {
+        positions.clear();
+        data.clear();
+        sorted.clear();
+    }
+
+    /**
+     * @return the gene with the highest innovation number, or null if the set is empty
+     */
+    public T last(){
+        if(sorted.isEmpty()) return null;
+        return sorted.lastEntry().getValue();
+    }
+
+    /**
+     * iterates the genes in innovation order
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return sorted.values().iterator();
+    }
+}
@@ -0,0 +1,140 @@
+package com.magikman.pongai.neat.data_structures;
+
+import java.util.Arrays;
+
+/**
+ * open addressing map from a connection's (from, to) node pair to its innovation number and replace index.
+ * keys and values are stored in primitive arrays, so lookups neither box nor allocate.
+ */
+public class InnovationMap {
+
+    private long[] keys;
+    private int[] innovations;
+    private int[] replace_indices;
+    private boolean[] used;
+
+    private int size;
+    private int mask;
+
+    public InnovationMap(){
+        this(64);
+    }
+
+    /**
+     * @param capacity expected number of connections
+     */
+    public InnovationMap(int capacity){
+        int table_size = 16;
+        while(table_size < capacity * 2) table_size <<= 1;
+
+        allocate(table_size);
+    }
+
+    /**
+     * @return the key of the connection between two nodes
+     */
+    public static long key(int from, int to){
+        return ((long)from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    private void allocate(int table_size){
+        keys = new long[table_size];
+        innovations = new int[table_size];
+        replace_indices = new int[table_size];
+        used = new boolean[table_size];
+        mask = table_size - 1;
+        size = 0;
+    }
+
+    private int slot(long key){
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * finds the slot of a key, or the empty slot it would be put into
+     */
+    private int find(long key){
+        int i = slot(key);
+        while(used[i] && keys[i] != key){
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * @return the innovation number of the connection, or 0 if it is not in the map
+     */
+    public int get_innovation(long key){
+        int i = find(key);
+        return used[i] ? innovations[i] : 0;
+    }
+
+    /**
+     * gets the innovation number of a connection, adding it with the next free innovation number (size + 1)
+     * if it is not in the map yet
+     *
+     * @return the innovation number of the connection
+     */
+    public int get_or_add(long key){
+        int i = find(key);
+        if(used[i]) return innovations[i];
+
+        used[i] = true;
+        keys[i] = key;
+        innovations[i] = ++size;
+        replace_indices[i] = 0;
+
+        if(size * 2 > keys.length) grow();
+
+        return size;
+    }
+
+    /**
+     * @return the replace index of the connection, or 0 if it is not in the map
+     */
+    public int get_replace_index(long key){
+        int i = find(key);
+        return used[i] ? replace_indices[i] : 0;
+    }
+
+    /**
+     * sets the replace index of a connection that is already in the map
+     */
+    public void set_replace_index(long key, int replace_index){
+        int i = find(key);
+        if(used[i]) replace_indices[i] = replace_index;
+    }
+
+    private void grow(){
+        long[] old_keys = keys;
+        int[] old_innovations = innovations;
+        int[] old_replace_indices = replace_indices;
+        boolean[] old_used = used;
+        int old_size = size;
+
+        allocate(old_keys.length * 2);
+
+        for(int i = 0; i < old_keys.length; i++){
+            if(!old_used[i]) continue;
+
+            int k = find(old_keys[i]);
+            used[k] = true;
+            keys[k] = old_keys[i];
+            innovations[k] = old_innovations[i];
+            replace_indices[k] = old_replace_indices[i];
+        }
+        size = old_size;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public void clear(){
+        if(size == 0) return;
+
+        Arrays.fill(used, false);
+        size = 0;
+    }
+}
@@ -1,9 +1,8 @@
 package com.magikman.pongai.neat.data_structures;
 
-import com.magikman.pongai.neat.genome.Gene;
-
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.SplittableRandom;
 
 public class RandomHashSet<T> {
 
@@ -26,6 +25,13 @@ public class RandomHashSet<T> {
         return null;
     }
 
+    public T random_element(SplittableRandom random){
+        if(set.size() > 0){
+            return data.get(random.nextInt(size()));
+        }
+        return null;
+    }
+
     public int size() {
         return data.size();
     }
@@ -37,24 +43,25 @@ public class RandomHashSet<T> {
         }
     }
 
-    public void add_sorted(Gene object){
-        for(int i = 0; i < this.size(); i++){
-            int innovation = ((Gene)data.get(i)).getInnovation_number();
-            if(object.getInnovation_number() < innovation){
-                data.add(i, (T)object);
-                set.add((T)object);
-                return;
-            }
-        }
-        data.add((T)object);
-        set.add((T)object);
-    }
-
     public void clear() {
         set.clear();
         data.clear();
     }
 
+    /**
+     * removes every element whose index is marked in one pass, the other elements keep their order
+     *
+     * @param remove must be at least as long as the set
+     */
+    public void remove_all(boolean[] remove){
+        int kept = 0;
+        for(int i = 0; i < data.size(); i++){
+            if(remove[i]) set.remove(data.get(i));
+            else data.set(kept++, data.get(i));
+        }
+        data.subList(kept, data.size()).clear();
+    }
+
     public T get(int index){
         if(index < 0 || index >= size())return null;
         return data.get(index);
@@ -1,36 +1,115 @@
 package com.magikman.pongai.neat.data_structures;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
+/**
+ * picks random elements with a chance proportional to their score.
+ *
+ * the first draw after adding elements builds alias tables (vose's method) from the scores,
+ * after that every draw takes O(1) no matter how many elements there are.
+ * if any score is negative, all scores are shifted up so the lowest one is 0.
+ * if all scores are 0, every element is equally likely.
+ */
 public class RandomSelector<T> {
 
     private ArrayList<T> objects = new ArrayList<>();
-    private ArrayList<Double> scores = new ArrayList<>();
+    private double[] scores = new double[16];
 
-    private double total_score = 0;
+    private double[] probabilities;
+    private int[] aliases;
+    private boolean built = false;
 
     public void add(T element, double score){
+        if(objects.size() == scores.length) scores = Arrays.copyOf(scores, scores.length * 2);
+
+        scores[objects.size()] = score;
         objects.add(element);
-        scores.add(score);
-        total_score+=score;
+        built = false;
     }
 
     public T random() {
-        double v = Math.random() * total_score;
-        double c = 0;
-        for(int i = 0; i < objects.size(); i++){
-            c += scores.get(i);
-            if(c >= v){
-                return objects.get(i);
-            }
+        if(objects.isEmpty()) return null;
+        if(!built) build();
+
+        return pick((int)(Math.random() * objects.size()), Math.random());
+    }
+
+    public T random(SplittableRandom random) {
+        if(objects.isEmpty()) return null;
+        if(!built) build();
+
+        return pick(random.nextInt(objects.size()), random.nextDouble());
+    }
+
+    private T pick(int column, double v) {
+        if(v < probabilities[column]) return objects.get(column);
+        return objects.get(aliases[column]);
+    }
+
+    private void build() {
+        int n = objects.size();
+
+        double min = 0;
+        for(int i = 0; i < n; i++){
+            min = Math.min(min, scores[i]);
+        }
+
+        double total = 0;
+        for(int i = 0; i < n; i++){
+            total += scores[i] - min;
+        }
+
+        probabilities = new double[n];
+        aliases = new int[n];
+
+        //scaled so the average column holds exactly 1
+        double[] scaled = new double[n];
+        for(int i = 0; i < n; i++){
+            scaled[i] = total > 0 ? (scores[i] - min) * n / total : 1;
         }
-        return null;
+
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int small_count = 0;
+        int large_count = 0;
+
+        for(int i = 0; i < n; i++){
+            if(scaled[i] < 1) small[small_count++] = i;
+            else large[large_count++] = i;
+        }
+
+        while(small_count > 0 && large_count > 0){
+            int l = small[--small_count];
+            int g = large[--large_count];
+
+            probabilities[l] = scaled[l];
+            aliases[l] = g;
+
+            scaled[g] = (scaled[g] + scaled[l]) - 1;
+            if(scaled[g] < 1) small[small_count++] = g;
+            else large[large_count++] = g;
+        }
+
+        //whatever is left over is 1 up to rounding errors
+        while(large_count > 0){
+            int g = large[--large_count];
+            probabilities[g] = 1;
+            aliases[g] = g;
+        }
+        while(small_count > 0){
+            int l = small[--small_count];
+            probabilities[l] = 1;
+            aliases[l] = l;
+        }
+
+        built = true;
     }
 
     public void reset() {
         objects.clear();
-        scores.clear();
-        total_score = 0;
+        built = false;
     }
 
-}
\ No newline at end of file
+}
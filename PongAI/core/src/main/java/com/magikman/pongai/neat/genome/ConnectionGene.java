@@ -2,6 +2,11 @@ package com.magikman.pongai.neat.genome;
 
 import com.magikman.pongai.neat.neat.Neat;
 
+/**
+ * connection genes are shared between parents and children once they are part of a genome,
+ * so they must not be changed after being added to one. mutations replace them with the copies
+ * made by withWeight and withEnabled instead
+ */
 public class ConnectionGene extends Gene {
 
     private NodeGene from;
@@ -10,13 +15,37 @@ public class ConnectionGene extends Gene {
     private double weight;
     private boolean enabled = true;
 
-    private int replaceIndex;
-
     public ConnectionGene(NodeGene from, NodeGene to) {
         this.from = from;
         this.to = to;
     }
 
+    /**
+     * @return a copy of this gene with a different weight
+     */
+    public ConnectionGene withWeight(double weight) {
+        ConnectionGene c = copy();
+        c.weight = weight;
+        return c;
+    }
+
+    /**
+     * @return a copy of this gene that is enabled or disabled
+     */
+    public ConnectionGene withEnabled(boolean enabled) {
+        ConnectionGene c = copy();
+        c.enabled = enabled;
+        return c;
+    }
+
+    private ConnectionGene copy() {
+        ConnectionGene c = new ConnectionGene(from, to);
+        c.setInnovation_number(innovation_number);
+        c.weight = weight;
+        c.enabled = enabled;
+        return c;
+    }
+
     public NodeGene getFrom() {
         return from;
     }
@@ -68,12 +97,4 @@ public class ConnectionGene extends Gene {
     public int hashCode() {
         return from.getInnovation_number() * Neat.MAX_NODES + to.getInnovation_number();
     }
-
-    public int getReplaceIndex() {
-        return replaceIndex;
-    }
-
-    public void setReplaceIndex(int replaceIndex) {
-        this.replaceIndex = replaceIndex;
-    }
 }
\ No newline at end of file
@@ -1,22 +1,54 @@
 package com.magikman.pongai.neat.genome;
 
 import com.magikman.pongai.neat.calculations.Calculator;
-import com.magikman.pongai.neat.calculations.Connection;
-import com.magikman.pongai.neat.data_structures.RandomHashSet;
+import com.magikman.pongai.neat.data_structures.GeneSet;
 import com.magikman.pongai.neat.neat.Neat;
 
-import java.util.Random;
+import java.util.Iterator;
+import java.util.SplittableRandom;
 
 public class Genome {
 
-    private RandomHashSet<ConnectionGene> connections = new RandomHashSet<>();
-    private RandomHashSet<NodeGene> nodes = new RandomHashSet<>();
+    /**
+     * bits returned by draw_mutations
+     */
+    public static final int MUTATE_LINK = 1;
+    public static final int MUTATE_NODE = 2;
+    public static final int MUTATE_WEIGHT_SHIFT = 4;
+    public static final int MUTATE_WEIGHT_RANDOM = 8;
+    public static final int MUTATE_TOGGLE_LINK = 16;
+
+    /**
+     * mutations that register new genes in the neat instance
+     */
+    public static final int STRUCTURAL_MUTATIONS = MUTATE_LINK | MUTATE_NODE;
+
+    private GeneSet<ConnectionGene> connections = new GeneSet<>();
+    private GeneSet<NodeGene> nodes = new GeneSet<>();
 
     private Neat neat;
 
+    /**
+     * random stream used by all mutations of this genome
+     */
+    private SplittableRandom random;
+
+    /**
+     * counters used by the calculators to find out if they are stale.
+     * the structure version changes whenever connections or nodes are added, removed, enabled or disabled,
+     * the weight version whenever only a weight changes
+     */
+    private int structure_version;
+    private int weight_version;
+
 
     public Genome(Neat neat) {
+        this(neat, new SplittableRandom());
+    }
+
+    public Genome(Neat neat, SplittableRandom random) {
         this.neat = neat;
+        this.random = random;
     }
 
 
@@ -28,26 +60,38 @@ public class Genome {
      * @return
      */
     public double distance(Genome g2){
+        return distance(g2.innovation_array(), g2.weight_array(), Double.POSITIVE_INFINITY);
+    }
 
-        Genome g1 = this;
-        int highest_innovation_gene1 = 0;
-        if(g1.getConnections().size() != 0){
-            highest_innovation_gene1 = g1.getConnections().get(g1.getConnections().size()-1).getInnovation_number();
-        }
+    /**
+     * calculates the same distance as distance(g2), against a genome given as primitive arrays,
+     * but stops as soon as the disjoint genes alone prove that it is not below the threshold
+     *
+     * @param innovations the innovation numbers of the other genome's connections, in innovation order
+     * @param weights the weights of the other genome's connections, in innovation order
+     * @param threshold distance at which the exact value stops mattering
+     * @return the distance, or a value at least as high as the threshold if the calculation stopped early
+     */
+    public double distance(int[] innovations, double[] weights, double threshold){
 
-        int highest_innovation_gene2 = 0;
-        if(g2.getConnections().size() != 0){
-            highest_innovation_gene2 = g2.getConnections().get(g2.getConnections().size()-1).getInnovation_number();
-        }
+        int size_a = connections.size();
+        int size_b = innovations.length;
+
+        //the genome with the higher last innovation number is g1, only its left over genes count as excess
+        int highest_a = size_a == 0 ? 0 : connections.last().getInnovation_number();
+        int highest_b = size_b == 0 ? 0 : innovations[size_b - 1];
+        boolean a_is_g1 = highest_a >= highest_b;
 
-        if(highest_innovation_gene1 < highest_innovation_gene2){
-            Genome g = g1;
-            g1 = g2;
-            g2 = g;
+        double N = Math.max(size_a, size_b);
+        if(N < 20){
+            N = 1;
         }
 
-        int index_g1 = 0;
-        int index_g2 = 0;
+        Iterator<ConnectionGene> iterator_a = connections.iterator();
+        ConnectionGene gene_a = next(iterator_a);
+
+        int index_a = 0;
+        int index_b = 0;
 
         int disjoint = 0;
         int excess = 0;
@@ -55,41 +99,68 @@ public class Genome {
         int similar = 0;
 
 
-        while(index_g1 < g1.getConnections().size() && index_g2 < g2.getConnections().size()){
+        while(gene_a != null && index_b < size_b){
 
-            ConnectionGene gene1 = g1.getConnections().get(index_g1);
-            ConnectionGene gene2 = g2.getConnections().get(index_g2);
-
-            int in1 = gene1.getInnovation_number();
-            int in2 = gene2.getInnovation_number();
+            int in_a = gene_a.getInnovation_number();
+            int in_b = innovations[index_b];
 
-            if(in1 == in2){
+            if(in_a == in_b){
                 //similargene
                 similar ++;
-                weight_diff += Math.abs(gene1.getWeight() - gene2.getWeight());
-                index_g1++;
-                index_g2++;
-            }else if(in1 > in2){
-                //disjoint gene of b
-                disjoint ++;
-                index_g2++;
+                weight_diff += Math.abs(gene_a.getWeight() - weights[index_b]);
+                gene_a = next(iterator_a);
+                index_a++;
+                index_b++;
+                continue;
+            }
+
+            //disjoint gene of whichever genome has the lower innovation number
+            disjoint ++;
+            if(in_a > in_b){
+                index_b++;
             }else{
-                //disjoint gene of a
-                disjoint ++;
-                index_g1 ++;
+                gene_a = next(iterator_a);
+                index_a++;
             }
+
+            //the other terms can only add to this one
+            double lower_bound = neat.getC1() * disjoint / N;
+            if(lower_bound >= threshold) return lower_bound;
         }
 
         weight_diff /= Math.max(1,similar);
-        excess = g1.getConnections().size() - index_g1;
+        excess = a_is_g1 ? size_a - index_a : size_b - index_b;
 
-        double N = Math.max(g1.getConnections().size(), g2.getConnections().size());
-        if(N < 20){
-            N = 1;
+        return neat.getC1()  * disjoint / N + neat.getC2() * excess / N + neat.getC3() * weight_diff / N;
+
+    }
+
+    /**
+     * @return the innovation numbers of the connections, in innovation order
+     */
+    public int[] innovation_array(){
+        int[] innovations = new int[connections.size()];
+        int i = 0;
+        for(ConnectionGene c:connections){
+            innovations[i++] = c.getInnovation_number();
         }
+        return innovations;
+    }
 
-        return neat.getC1()  * disjoint / N + neat.getC2() * excess / N + neat.getC3() * weight_diff / N;
+    /**
+     * @return the weights of the connections, in innovation order
+     */
+    public double[] weight_array(){
+        double[] weights = new double[connections.size()];
+        int i = 0;
+        for(ConnectionGene c:connections){
+            weights[i++] = c.getWeight();
+        }
+        return weights;
+    }
 
+    private static <T> T next(Iterator<T> iterator){
+        return iterator.hasNext() ? iterator.next() : null;
     }
 
     /**
@@ -104,51 +175,65 @@ public class Genome {
      * @return
      */
     public static Genome crossOver(Genome g1, Genome g2){
+        return crossOver(g1, g2, new SplittableRandom());
+    }
+
+    /**
+     * creates a new genome like crossOver(g1, g2).
+     * only reads the parents, so several children can be bred from the same parents at the same time.
+     * the child shares the inherited connection genes with its parents instead of copying them
+     *
+     * @param g1
+     * @param g2
+     * @param random used to choose between matching genes, and kept by the child for its mutations
+     * @return
+     */
+    public static Genome crossOver(Genome g1, Genome g2, SplittableRandom random){
         Neat neat = g1.getNeat();
 
-        Genome genome = neat.empty_genome();
+        Genome genome = neat.empty_genome(random);
 
-        int index_g1 = 0;
-        int index_g2 = 0;
+        Iterator<ConnectionGene> iterator_g1 = g1.getConnections().iterator();
+        Iterator<ConnectionGene> iterator_g2 = g2.getConnections().iterator();
 
-        while(index_g1 < g1.getConnections().size() && index_g2 < g2.getConnections().size()){
+        ConnectionGene gene1 = next(iterator_g1);
+        ConnectionGene gene2 = next(iterator_g2);
 
-            ConnectionGene gene1 = g1.getConnections().get(index_g1);
-            ConnectionGene gene2 = g2.getConnections().get(index_g2);
+        while(gene1 != null && gene2 != null){
 
             int in1 = gene1.getInnovation_number();
             int in2 = gene2.getInnovation_number();
 
             if(in1 == in2){
-                if(Math.random() > 0.5){
-                    genome.getConnections().add(neat.getConnection(gene1));
+                if(random.nextDouble() > 0.5){
+                    genome.getConnections().add(gene1);
                 }else{
-                    genome.getConnections().add(neat.getConnection(gene2));
+                    genome.getConnections().add(gene2);
                 }
-                index_g1++;
-                index_g2++;
+                gene1 = next(iterator_g1);
+                gene2 = next(iterator_g2);
             }else if(in1 > in2){
                 //genome.getConnections().add(neat.getConnection(gene2));
                 //disjoint gene of b
-                index_g2++;
+                gene2 = next(iterator_g2);
             }else{
                 //disjoint gene of a
-                genome.getConnections().add(neat.getConnection(gene1));
-                index_g1 ++;
+                genome.getConnections().add(gene1);
+                gene1 = next(iterator_g1);
             }
         }
 
-        while(index_g1 < g1.getConnections().size()){
-            ConnectionGene gene1 = g1.getConnections().get(index_g1);
-            genome.getConnections().add(neat.getConnection(gene1));
-            index_g1++;
+        while(gene1 != null){
+            genome.getConnections().add(gene1);
+            gene1 = next(iterator_g1);
         }
 
-        for(ConnectionGene c:genome.getConnections().getData()){
+        for(ConnectionGene c:genome.getConnections()){
             genome.getNodes().add(c.getFrom());
             genome.getNodes().add(c.getTo());
         }
-        
+        genome.structure_changed();
+
         return genome;
     }
 
@@ -156,15 +241,46 @@ public class Genome {
 
 
     public void mutate(){
-        if(neat.getPROBABILITY_MUTATE_LINK() > Math.random()){
+        apply_mutations(draw_mutations());
+    }
+
+    /**
+     * decides which mutations will happen, without applying them yet
+     *
+     * @return the MUTATE_ bits of the chosen mutations
+     */
+    public int draw_mutations(){
+        int mutations = 0;
+        if(neat.getPROBABILITY_MUTATE_LINK() > random.nextDouble()){
+            mutations |= MUTATE_LINK;
+        }if(neat.getPROBABILITY_MUTATE_NODE() > random.nextDouble()){
+            mutations |= MUTATE_NODE;
+        }if(neat.getPROBABILITY_MUTATE_WEIGHT_SHIFT() > random.nextDouble()){
+            mutations |= MUTATE_WEIGHT_SHIFT;
+        }if(neat.getPROBABILITY_MUTATE_WEIGHT_RANDOM() > random.nextDouble()){
+            mutations |= MUTATE_WEIGHT_RANDOM;
+        }if(neat.getPROBABILITY_MUTATE_TOGGLE_LINK() > random.nextDouble()){
+            mutations |= MUTATE_TOGGLE_LINK;
+        }
+        return mutations;
+    }
+
+    /**
+     * applies mutations chosen by draw_mutations.
+     * mutations without STRUCTURAL_MUTATIONS bits only touch this genome and can run on any thread
+     *
+     * @param mutations the MUTATE_ bits of the mutations to apply
+     */
+    public void apply_mutations(int mutations){
+        if((mutations & MUTATE_LINK) != 0){
             mutate_link();
-        }if(neat.getPROBABILITY_MUTATE_NODE() > Math.random()){
+        }if((mutations & MUTATE_NODE) != 0){
             mutate_node();
-        }if(neat.getPROBABILITY_MUTATE_WEIGHT_SHIFT() > Math.random()){
+        }if((mutations & MUTATE_WEIGHT_SHIFT) != 0){
             mutate_weight_shift();
-        }if(neat.getPROBABILITY_MUTATE_WEIGHT_RANDOM() > Math.random()){
+        }if((mutations & MUTATE_WEIGHT_RANDOM) != 0){
             mutate_weight_random();
-        }if(neat.getPROBABILITY_MUTATE_TOGGLE_LINK() > Math.random()){
+        }if((mutations & MUTATE_TOGGLE_LINK) != 0){
             mutate_link_toggle();
         }
     }
@@ -173,8 +289,8 @@ public class Genome {
 
         for(int i = 0; i < 100; i++){
 
-            NodeGene a = nodes.random_element();
-            NodeGene b = nodes.random_element();
+            NodeGene a = nodes.random_element(random);
+            NodeGene b = nodes.random_element(random);
 
             if(a == null || b == null) continue;
             if(a.getX() == b.getX()){
@@ -193,15 +309,16 @@ public class Genome {
             }
 
             con = neat.getConnection(con.getFrom(), con.getTo());
-            con.setWeight((Math.random() * 2 - 1) * neat.getWEIGHT_RANDOM_STRENGTH());
+            con.setWeight((random.nextDouble() * 2 - 1) * neat.getWEIGHT_RANDOM_STRENGTH());
 
-            connections.add_sorted(con);
+            connections.add(con);
+            structure_changed();
             return;
         }
     }
 
     public void mutate_node() {
-        ConnectionGene con = connections.random_element();
+        ConnectionGene con = connections.random_element(random);
         if(con == null) return;
 
         NodeGene from = con.getFrom();
@@ -212,7 +329,7 @@ public class Genome {
         if(replaceIndex == 0){
             middle = neat.getNode();
             middle.setX((from.getX() + to.getX()) / 2);
-            middle.setY((from.getY() + to.getY()) / 2 + Math.random() * 0.1 - 0.05);
+            middle.setY((from.getY() + to.getY()) / 2 + random.nextDouble() * 0.1 - 0.05);
             neat.setReplaceIndex(from, to, middle.getInnovation_number());
         }else{
             middle = neat.getNode(replaceIndex);
@@ -230,34 +347,60 @@ public class Genome {
         connections.add(con2);
 
         nodes.add(middle);
+        structure_changed();
     }
 
     public void mutate_weight_shift() {
-        ConnectionGene con = connections.random_element();
+        ConnectionGene con = connections.random_element(random);
         if(con != null){
-            con.setWeight(con.getWeight() + (Math.random() * 2 - 1) * neat.getWEIGHT_SHIFT_STRENGTH());
+            connections.replace(con, con.withWeight(con.getWeight() + (random.nextDouble() * 2 - 1) * neat.getWEIGHT_SHIFT_STRENGTH()));
+            weights_changed();
         }
     }
 
     public void mutate_weight_random() {
-        ConnectionGene con = connections.random_element();
+        ConnectionGene con = connections.random_element(random);
         if(con != null){
-            con.setWeight((Math.random() * 2 - 1) * neat.getWEIGHT_RANDOM_STRENGTH());
+            connections.replace(con, con.withWeight((random.nextDouble() * 2 - 1) * neat.getWEIGHT_RANDOM_STRENGTH()));
+            weights_changed();
         }
     }
 
     public void mutate_link_toggle() {
-        ConnectionGene con = connections.random_element();
+        ConnectionGene con = connections.random_element(random);
         if(con != null){
-            con.setEnabled(!con.isEnabled());
+            connections.replace(con, con.withEnabled(!con.isEnabled()));
+            structure_changed();
         }
     }
 
-    public RandomHashSet<ConnectionGene> getConnections() {
+    /**
+     * has to be called after nodes or connections were added, removed, enabled or disabled
+     */
+    public void structure_changed() {
+        structure_version++;
+    }
+
+    /**
+     * has to be called after the weight of a connection changed
+     */
+    public void weights_changed() {
+        weight_version++;
+    }
+
+    public int getStructure_version() {
+        return structure_version;
+    }
+
+    public int getWeight_version() {
+        return weight_version;
+    }
+
+    public GeneSet<ConnectionGene> getConnections() {
         return connections;
     }
 
-    public RandomHashSet<NodeGene> getNodes() {
+    public GeneSet<NodeGene> getNodes() {
         return nodes;
     }
 
@@ -15,11 +15,28 @@ public class Client {
         this.calculator = new Calculator(genome);
     }
 
+    /**
+     * rebuilds the calculator only if the genome was replaced or its structure changed.
+     * if only weights changed, they are patched into the existing calculator
+     */
+    public void update_calculator(){
+        if(this.calculator == null || !this.calculator.isStructureCurrent(genome)){
+            generate_calculator();
+        }else if(!this.calculator.isWeightCurrent()){
+            this.calculator.refresh_weights();
+        }
+    }
+
     public double[] calculate(double... input){
         if(this.calculator == null) generate_calculator();
         return this.calculator.calculate(input);
     }
 
+    public void calculate(double[] input, double[] output){
+        if(this.calculator == null) generate_calculator();
+        this.calculator.calculate(input, output);
+    }
+
     public double distance(Client other) {
         return this.getGenome().distance(other.getGenome());
     }
@@ -1,5 +1,7 @@
 package com.magikman.pongai.neat.neat;
 
+import com.magikman.pongai.neat.calculations.Activation;
+import com.magikman.pongai.neat.data_structures.InnovationMap;
 import com.magikman.pongai.neat.data_structures.RandomHashSet;
 import com.magikman.pongai.neat.data_structures.RandomSelector;
 import com.magikman.pongai.neat.genome.ConnectionGene;
@@ -8,8 +10,10 @@ import com.magikman.pongai.neat.genome.Genome;
 import com.magikman.pongai.neat.genome.NodeGene;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 
 public class Neat {
 
@@ -31,7 +35,7 @@ public class Neat {
     private double PROBABILITY_MUTATE_WEIGHT_RANDOM= 0.02;
     private double PROBABILITY_MUTATE_TOGGLE_LINK = 0;
 
-    private HashMap<ConnectionGene, ConnectionGene> all_connections = new HashMap<>();
+    private InnovationMap all_connections = new InnovationMap();
     private RandomHashSet<NodeGene> all_nodes = new RandomHashSet<>();
 
     private RandomHashSet<Client> clients = new RandomHashSet<>();
@@ -41,12 +45,50 @@ public class Neat {
     private int output_size;
     private int input_size;
 
+    /**
+     * master random stream, every genome gets its own stream split from it in client order
+     */
+    private SplittableRandom random;
+
+    /**
+     * below this many clients a parallel evolve still runs on the calling thread
+     */
+    private static final int PARALLEL_THRESHOLD = 64;
+    private static final int TASKS_PER_THREAD = 4;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ForkJoinPool pool;
+    private boolean parallel_evolve = false;
+
+    private Activation activation = Activation.EXACT;
+    private boolean single_precision = false;
+
     public Neat(int input_size, int output_size, int clients){
+        this(input_size, output_size, clients, new SplittableRandom());
+    }
+
+    /**
+     * creates a neat instance whose evolution only depends on the seed,
+     * both with and without parallel evolve
+     */
+    public Neat(int input_size, int output_size, int clients, long seed){
+        this(input_size, output_size, clients, new SplittableRandom(seed));
+    }
+
+    private Neat(int input_size, int output_size, int clients, SplittableRandom random){
+        this.random = random;
         this.reset(input_size, output_size, clients);
     }
 
     public Genome empty_genome(){
-        Genome g = new Genome(this);
+        return empty_genome(random.split());
+    }
+
+    /**
+     * @param random the random stream of the new genome
+     */
+    public Genome empty_genome(SplittableRandom random){
+        Genome g = new Genome(this, random);
         for(int i = 0; i < input_size + output_size; i++){
             g.getNodes().add(getNode(i + 1));
         }
@@ -92,34 +134,29 @@ public class Neat {
         c.setEnabled(con.isEnabled());
         return c;
     }
-    public ConnectionGene getConnection(NodeGene node1, NodeGene node2){
+    public synchronized ConnectionGene getConnection(NodeGene node1, NodeGene node2){
         ConnectionGene connectionGene = new ConnectionGene(node1, node2);
-
-        if(all_connections.containsKey(connectionGene)){
-            connectionGene.setInnovation_number(all_connections.get(connectionGene).getInnovation_number());
-        }else{
-            connectionGene.setInnovation_number(all_connections.size() + 1);
-            all_connections.put(connectionGene, connectionGene);
-        }
+        connectionGene.setInnovation_number(all_connections.get_or_add(key(node1, node2)));
 
         return connectionGene;
     }
-    public void setReplaceIndex(NodeGene node1, NodeGene node2, int index){
-        all_connections.get(new ConnectionGene(node1, node2)).setReplaceIndex(index);
+    public synchronized void setReplaceIndex(NodeGene node1, NodeGene node2, int index){
+        all_connections.set_replace_index(key(node1, node2), index);
+    }
+    public synchronized int getReplaceIndex(NodeGene node1, NodeGene node2){
+        return all_connections.get_replace_index(key(node1, node2));
     }
-    public int getReplaceIndex(NodeGene node1, NodeGene node2){
-        ConnectionGene con = new ConnectionGene(node1, node2);
-        ConnectionGene data = all_connections.get(con);
-        if(data == null) return 0;
-        return data.getReplaceIndex();
+
+    private static long key(NodeGene node1, NodeGene node2){
+        return InnovationMap.key(node1.getInnovation_number(), node2.getInnovation_number());
     }
 
-    public NodeGene getNode() {
+    public synchronized NodeGene getNode() {
         NodeGene n = new NodeGene(all_nodes.size() + 1);
         all_nodes.add(n);
         return n;
     }
-    public NodeGene getNode(int id){
+    public synchronized NodeGene getNode(int id){
         if(id <= all_nodes.size()) {
             return all_nodes.get(id - 1);
         }
@@ -133,11 +170,111 @@ public class Neat {
         remove_extinct_species();
         reproduce();
         mutate();
+        for_each(clients.size(), i -> clients.get(i).update_calculator());
+    }
+
+    /**
+     * sets how many worker threads are used by a parallel evolve
+     * @param parallelism number of threads (1 keeps everything on the calling thread)
+     */
+    public void setParallelism(int parallelism) {
+        if(parallelism < 1) throw new RuntimeException("Parallelism must be at least 1");
+
+        this.parallelism = parallelism;
+
+        if(pool != null) pool.shutdown();
+        pool = null;
+    }
+
+    /**
+     * sets whether evolve splits the distance calculations, crossovers, mutations and calculator builds
+     * across the worker pool. a seeded neat instance evolves the same way with and without it
+     */
+    public void setParallelEvolve(boolean parallel_evolve) {
+        this.parallel_evolve = parallel_evolve;
+    }
+
+    /**
+     * sets the activation function of every calculator, see Activation for the error of the faster options
+     */
+    public void setActivation(Activation activation) {
+        this.activation = activation;
+        regenerate_calculators();
+    }
+
+    /**
+     * sets whether the calculators evaluate in single precision. the outputs then differ from double precision
+     * by the rounding error of every layer plus the error of the activation function
+     */
+    public void setSinglePrecision(boolean single_precision) {
+        this.single_precision = single_precision;
+        regenerate_calculators();
+    }
+
+    public Activation getActivation() {
+        return activation;
+    }
+
+    public boolean isSinglePrecision() {
+        return single_precision;
+    }
+
+    private void regenerate_calculators() {
         for(Client c:clients.getData()){
             c.generate_calculator();
         }
     }
 
+    private ForkJoinPool getPool() {
+        if(pool == null) pool = new ForkJoinPool(parallelism);
+        return pool;
+    }
+
+    /**
+     * runs a task for every index, on the worker pool if parallel evolve is on.
+     * the task must not depend on the order the indices are processed in
+     */
+    private void for_each(int count, IntConsumer task) {
+        if(!parallel_evolve || parallelism == 1 || count < PARALLEL_THRESHOLD){
+            for(int i = 0; i < count; i++){
+                task.accept(i);
+            }
+            return;
+        }
+
+        getPool().invoke(new RangeTask(task, 0, count, Math.max(1, count / (parallelism * TASKS_PER_THREAD))));
+    }
+
+    private static class RangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer task;
+        private final int start;
+        private final int end;
+        private final int grain;
+
+        RangeTask(IntConsumer task, int start, int end, int grain) {
+            this.task = task;
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if(end - start <= grain){
+                for(int i = start; i < end; i++){
+                    task.accept(i);
+                }
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new RangeTask(task, start, middle, grain), new RangeTask(task, middle, end, grain));
+        }
+    }
+
     public void printSpecies() {
         System.out.println("##########################################");
         for(Species s:this.species.getData()){
@@ -151,19 +288,44 @@ public class Neat {
             selector.add(s, s.getScore());
         }
 
-        for(Client c:clients.getData()){
+        //parents and random streams are picked in client order before any child is bred,
+        //so the children do not depend on the order they are bred in
+        Client[][] parents = new Client[clients.size()][];
+        SplittableRandom[] streams = new SplittableRandom[clients.size()];
+
+        for(int i = 0; i < clients.size(); i++){
+            Client c = clients.get(i);
             if(c.getSpecies() == null){
-                Species s = selector.random();
-                c.setGenome(s.breed());
+                Species s = selector.random(random);
+                parents[i] = s.select_parents(random);
+                streams[i] = random.split();
                 s.force_put(c);
             }
         }
+
+        for_each(clients.size(), i -> {
+            if(parents[i] != null){
+                clients.get(i).setGenome(Genome.crossOver(parents[i][0].getGenome(), parents[i][1].getGenome(), streams[i]));
+            }
+        });
     }
 
     public void mutate() {
-        for(Client c:clients.getData()){
-            c.mutate();
+        int[] mutations = new int[clients.size()];
+        for_each(clients.size(), i -> mutations[i] = clients.get(i).getGenome().draw_mutations());
+
+        //link and node mutations register new genes, so they run in client order to get the same innovation numbers
+        for(int i = 0; i < clients.size(); i++){
+            if((mutations[i] & Genome.STRUCTURAL_MUTATIONS) != 0){
+                clients.get(i).getGenome().apply_mutations(mutations[i]);
+            }
         }
+
+        for_each(clients.size(), i -> {
+            if((mutations[i] & Genome.STRUCTURAL_MUTATIONS) == 0){
+                clients.get(i).getGenome().apply_mutations(mutations[i]);
+            }
+        });
     }
 
     private void remove_extinct_species() {
@@ -177,16 +339,38 @@ public class Neat {
 
     private void gen_species() {
         for(Species s:species.getData()){
-            s.reset();
+            s.reset(random);
         }
 
-        for(Client c:clients.getData()){
+        //new species are only added behind the existing ones, so the first existing species a client fits into
+        //can be found for every client at the same time
+        int existing = species.size();
+        int[] match = new int[clients.size()];
+
+        for_each(clients.size(), i -> {
+            match[i] = -1;
+            if(clients.get(i).getSpecies() != null) return;
+
+            for(int k = 0; k < existing; k++){
+                if(species.get(k).fits(clients.get(i))){
+                    match[i] = k;
+                    return;
+                }
+            }
+        });
+
+        for(int i = 0; i < clients.size(); i++){
+            Client c = clients.get(i);
             if(c.getSpecies() != null) continue;
 
+            if(match[i] != -1){
+                species.get(match[i]).force_put(c);
+                continue;
+            }
 
             boolean found = false;
-            for(Species s:species.getData()){
-                if(s.put(c)){
+            for(int k = existing; k < species.size(); k++){
+                if(species.get(k).put(c)){
                     found = true;
                     break;
                 }
@@ -195,12 +379,11 @@ public class Neat {
                 species.add(new Species(c));
             }
         }
-
-        for(Species s:species.getData()){
-            s.evaluate_score();
-        }
     }
 
+    /**
+     * also evaluates the species' scores, from all clients before any are killed
+     */
     private void kill() {
         for(Species s:species.getData()){
             s.kill(1 - SURVIVORS);
@@ -210,6 +393,7 @@ public class Neat {
 
     public static void main(String[] args) {
         Neat neat = new Neat(10,1,1000);
+        neat.setParallelEvolve(true);
 
         double[] in = new double[10];
         for(int i = 0; i < 10; i++) in[i] = Math.random();
@@ -224,7 +408,7 @@ public class Neat {
         }
 
         for(Client c:neat.clients.getData()){
-            for(ConnectionGene g:c.getGenome().getConnections().getData()){
+            for(ConnectionGene g:c.getGenome().getConnections()){
                 System.out.print(g.getInnovation_number()+ " ");
             }
             System.out.println();
@@ -3,7 +3,8 @@ package com.magikman.pongai.neat.neat;
 import com.magikman.pongai.neat.data_structures.RandomHashSet;
 import com.magikman.pongai.neat.genome.Genome;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
 
 public class Species {
 
@@ -11,21 +12,45 @@ public class Species {
     private Client representative;
     private double score;
 
+    /**
+     * the number of clients that survived the last kill, only these are picked as parents
+     */
+    private int breeding_pool;
+
+    /**
+     * the representative's connections, cached when it is picked so each distance only reads one genome's lists
+     */
+    private int[] representative_innovations;
+    private double[] representative_weights;
+
     public Species(Client representative){
         this.representative = representative;
         this.representative.setSpecies(this);
         clients.add(representative);
+        cache_representative();
     }
 
     public boolean put(Client client){
-        if(client.distance(representative) < representative.getGenome().getNeat().getCP()){
-            client.setSpecies(this);
-            clients.add(client);
+        if(fits(client)){
+            force_put(client);
             return true;
         }
         return false;
     }
 
+    /**
+     * checks if a client is close enough to the representative without adding it
+     */
+    public boolean fits(Client client){
+        double cp = representative.getGenome().getNeat().getCP();
+        return client.getGenome().distance(representative_innovations, representative_weights, cp) < cp;
+    }
+
+    private void cache_representative() {
+        representative_innovations = representative.getGenome().innovation_array();
+        representative_weights = representative.getGenome().weight_array();
+    }
+
     public void force_put(Client client) {
         client.setSpecies(this);
         clients.add(client);
@@ -46,7 +71,11 @@ public class Species {
     }
 
     public void reset() {
-        representative = clients.random_element();
+        reset(new SplittableRandom());
+    }
+
+    public void reset(SplittableRandom random) {
+        representative = clients.random_element(random);
         for(Client c:clients.getData()){
             c.setSpecies(null);
         }
@@ -54,32 +83,104 @@ public class Species {
 
         clients.add(representative);
         representative.setSpecies(this);
+        cache_representative();
         score = 0;
     }
 
+    /**
+     * removes the given share of clients with the lowest scores, and evaluates the score of the species
+     * from all clients (like evaluate_score) in the same pass.
+     *
+     * the losers are found by partial selection (ties go to the client that was added first)
+     * and dropped with one truncation, the survivors keep their order
+     */
     public void kill(double percentage) {
-        clients.getData().sort(
-                new Comparator<Client>() {
-                    @Override
-                    public int compare(Client o1, Client o2) {
-                        return Double.compare(o1.getScore(), o2.getScore());
-                    }
-                }
-        );
-
-        double amount = percentage * this.clients.size();
-        for(int i = 0;i < amount; i++){
-            clients.get(0).setSpecies(null);
-            clients.remove(0);
+        ArrayList<Client> data = clients.getData();
+        int size = data.size();
+        int amount = (int)Math.ceil(percentage * size);
+
+        double[] scores = new double[size];
+        int[] order = new int[size];
+        double v = 0;
+        for(int i = 0; i < size; i++){
+            scores[i] = data.get(i).getScore();
+            order[i] = i;
+            v += scores[i];
+        }
+        score = v / size;
+
+        select_lowest(order, scores, amount);
+
+        boolean[] dead = new boolean[size];
+        for(int i = 0; i < amount; i++){
+            dead[order[i]] = true;
+            data.get(order[i]).setSpecies(null);
+        }
+        clients.remove_all(dead);
+
+        breeding_pool = clients.size();
+    }
+
+    /**
+     * moves the k lowest scores (ties broken by the lower index) to the front of order, in no particular order
+     */
+    private static void select_lowest(int[] order, double[] scores, int k) {
+        int lo = 0;
+        int hi = order.length - 1;
+
+        while(lo < hi){
+            int p = partition(order, scores, lo, hi);
+            if(p == k) return;
+            if(p < k) lo = p + 1;
+            else hi = p - 1;
+        }
+    }
+
+    private static int partition(int[] order, double[] scores, int lo, int hi) {
+        swap(order, (lo + hi) >>> 1, hi);
+        int pivot = order[hi];
+
+        int store = lo;
+        for(int i = lo; i < hi; i++){
+            if(lower(order[i], pivot, scores)) swap(order, i, store++);
         }
+        swap(order, store, hi);
+        return store;
+    }
+
+    private static boolean lower(int a, int b, double[] scores) {
+        int c = Double.compare(scores[a], scores[b]);
+        return c < 0 || (c == 0 && a < b);
+    }
+
+    private static void swap(int[] order, int a, int b) {
+        int t = order[a];
+        order[a] = order[b];
+        order[b] = t;
     }
 
     public Genome breed() {
-        Client c1 = clients.random_element();
-        Client c2 = clients.random_element();
+        return breed(new SplittableRandom());
+    }
+
+    public Genome breed(SplittableRandom random) {
+        Client[] parents = select_parents(random);
+        return Genome.crossOver(parents[0].getGenome(), parents[1].getGenome(), random.split());
+    }
+
+    /**
+     * picks two random parents among the clients that survived the last kill
+     *
+     * @return the parents, the one with the higher score first
+     */
+    public Client[] select_parents(SplittableRandom random) {
+        int pool = breeding_pool > 0 ? Math.min(breeding_pool, clients.size()) : clients.size();
+
+        Client c1 = clients.get(random.nextInt(pool));
+        Client c2 = clients.get(random.nextInt(pool));
 
-        if(c1.getScore() > c2.getScore()) return Genome.crossOver(c1.getGenome(), c2.getGenome());
-        return Genome.crossOver(c2.getGenome(), c1.getGenome());
+        if(c1.getScore() > c2.getScore()) return new Client[]{c1, c2};
+        return new Client[]{c2, c1};
     }
 
     public int size() {
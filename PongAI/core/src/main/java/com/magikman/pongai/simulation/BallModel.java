@@ -0,0 +1,129 @@
+package com.magikman.pongai.simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * State and movement of the ball, without anything from libGDX. Positions are the bottom left corner, like a Sprite's
+ */
+public class BallModel {
+
+	Field field;
+	SplittableRandom random;
+
+	float x, y;
+	float width, height;
+
+	float speed;
+	float veloX, veloY;
+
+	boolean invulnerable = false;
+	final int invulnTime = 10;
+	int invulnCounter = 0;
+
+	public BallModel(Field field) {
+		this(field, new SplittableRandom());
+	}
+
+	/**
+	 * @param random Source of the serve directions, a seeded one makes the match reproducible
+	 */
+	public BallModel(Field field, SplittableRandom random) {
+		this.field = field;
+		this.random = random;
+		this.width = field.ballWidth;
+		this.height = field.ballHeight;
+
+		reset();
+	}
+
+	public void reset() {
+
+		invulnerable = false;
+		invulnCounter = 0;
+
+		x = field.width / 2 - width / 2;
+		y = field.height / 2 - height / 2;
+
+		this.speed = 500;
+		float yVelo = (float)((random.nextDouble() * 800) - 400f);
+
+		float xVelo = (float)Math.sqrt((Math.pow(speed, 2) - Math.pow(yVelo, 2)));
+		if(random.nextDouble() > 0.5) xVelo *= -1;
+
+		veloX = xVelo;
+		veloY = yVelo;
+	}
+
+	public void update(float dt) {
+		x = x + veloX * dt;
+		y = y + veloY * dt;
+
+		checkBounce();
+
+		if(invulnerable) invulnCounter++;
+		if(invulnCounter >= invulnTime) {
+			invulnerable = false;
+			invulnCounter = 0;
+		}
+	}
+
+	public void checkBounce() {
+		if(y < 0) {
+			y = 0;
+			veloY *= -1;
+		} else if((y + height) > field.height) {
+			y = field.height - height;
+			veloY *= -1;
+		}
+	}
+
+	public void bounce(float yVector) {
+
+		float yVelo = veloY + yVector;
+
+		do {
+			speed += 50;
+		} while(speed < (Math.abs(yVelo) + 30));
+
+		float xVelo = (float)Math.sqrt(Math.pow(speed, 2) - Math.pow(yVelo, 2));
+
+		if(veloX > 0) xVelo *= -1;
+
+		veloX = xVelo;
+		veloY = yVelo;
+
+		invulnerable = true;
+	}
+
+	public float getCenterY() {
+		return y + (height / 2);
+	}
+
+	public float getX() {
+		return x;
+	}
+
+	public float getY() {
+		return y;
+	}
+
+	public float getWidth() {
+		return width;
+	}
+
+	public float getHeight() {
+		return height;
+	}
+
+	public float getVeloX() {
+		return veloX;
+	}
+
+	public float getVeloY() {
+		return veloY;
+	}
+
+	public boolean getInvulnerable() {
+		return this.invulnerable;
+	}
+}
@@ -0,0 +1,547 @@
+package com.magikman.pongai.simulation;
+
+import java.util.SplittableRandom;
+
+import neuroEvo.Population;
+
+/**
+ * Many games of pong between two populations at once, game i being played by genome i of each population.<br>
+ * Instead of a Match with its own ball and paddle objects per game, the state of every game is kept in primitive
+ * arrays indexed by game, and every step walks all games in one loop. The rules are the same as NetworkGame, including
+ * the fitness rewards, which are collected per game and handed to the genomes by applyFitness.<br>
+ * With a parallelism above 1 the running games are split into partitions that are stepped on worker threads. Every
+ * partition only touches its own games, its own scratch arrays and its own part of the running list, so nothing is
+ * locked and the calling thread only joins at the end of the step. Every game serves from its own random stream, so
+ * the results do not depend on the number of threads
+ */
+public class BatchWorld {
+
+	Field field;
+	int size;
+	int winScore;
+
+	Population leftPopulation, rightPopulation;
+
+	/**
+	 * Serve directions of every game
+	 */
+	SplittableRandom[] randoms;
+
+	//Ball of every game
+	float[] ballX, ballY;
+	float[] veloX, veloY;
+	float[] speed;
+	boolean[] invulnerable;
+	int[] invulnCounter;
+
+	//Paddles of every game, their x positions are the same in every game
+	float[] leftY, rightY;
+	float leftX, rightX;
+
+	/**
+	 * How far a paddle moves per input, set by the last update like PaddleModel.currSpeed
+	 */
+	float currSpeed;
+
+	int[] leftScore, rightScore;
+	double[] leftFitness, rightFitness;
+
+	/**
+	 * Indices of the games without a winner in their first active entries, finished games are dropped from it by
+	 * step so the loops never visit them again
+	 */
+	int[] running;
+	int active;
+
+	/**
+	 * Worker threads, null while stepping on the calling thread
+	 */
+	Workers workers;
+
+	/**
+	 * Scratch arrays of every partition
+	 */
+	double[][] inputs;
+	double[][] leftOutputs, rightOutputs;
+
+	/**
+	 * Start of every partition in the running list and how many of its games were still running after the step
+	 */
+	int[] partStart, partKept;
+
+	/**
+	 * Points scored and games finished in every partition during the step, and their totals since setup
+	 */
+	int[] partLeftPoints, partRightPoints, partLeftWins, partRightWins;
+	int leftPoints, rightPoints, leftWins, rightWins;
+
+	/**
+	 * Step length of the step in progress, read by the partitions
+	 */
+	float stepDt;
+
+	final float ballWidth, ballHeight;
+	final float paddleWidth, paddleHeight;
+
+	final float paddleSpeed = 500;
+	final int invulnTime = 10;
+
+	public BatchWorld(Field field, int winScore, Population leftPopulation, Population rightPopulation) {
+		this(field, winScore, leftPopulation, rightPopulation, new SplittableRandom());
+	}
+
+	/**
+	 * @param seed Seed for the starting directions of the ball, so every run with the same seed serves the same balls
+	 */
+	public BatchWorld(Field field, int winScore, Population leftPopulation, Population rightPopulation, long seed) {
+		this(field, winScore, leftPopulation, rightPopulation, new SplittableRandom(seed));
+	}
+
+	private BatchWorld(Field field, int winScore, Population leftPopulation, Population rightPopulation, SplittableRandom random) {
+		if(leftPopulation.getSize() != rightPopulation.getSize()) throw new RuntimeException("Populations must be the same size");
+
+		this.field = field;
+		this.winScore = winScore;
+		this.leftPopulation = leftPopulation;
+		this.rightPopulation = rightPopulation;
+		this.size = leftPopulation.getSize();
+
+		randoms = new SplittableRandom[size];
+		for(int i = 0; i < size; i++) {
+			randoms[i] = random.split();
+		}
+
+		ballWidth = field.ballWidth;
+		ballHeight = field.ballHeight;
+		paddleWidth = field.paddleWidth;
+		paddleHeight = field.paddleHeight;
+
+		leftX = field.width / 8 - paddleWidth / 2;
+		rightX = field.width / 8 * 7 - paddleWidth / 2;
+
+		ballX = new float[size];
+		ballY = new float[size];
+		veloX = new float[size];
+		veloY = new float[size];
+		speed = new float[size];
+		invulnerable = new boolean[size];
+		invulnCounter = new int[size];
+
+		leftY = new float[size];
+		rightY = new float[size];
+
+		leftScore = new int[size];
+		rightScore = new int[size];
+		leftFitness = new double[size];
+		rightFitness = new double[size];
+
+		running = new int[size];
+		allocatePartitions(1);
+
+		setup();
+	}
+
+	private void allocatePartitions(int partitions) {
+		inputs = new double[partitions][Match.AI_INPUTS];
+		leftOutputs = new double[partitions][leftPopulation.getGenome(0).getOutputSize()];
+		rightOutputs = new double[partitions][rightPopulation.getGenome(0).getOutputSize()];
+
+		partStart = new int[partitions];
+		partKept = new int[partitions];
+
+		partLeftPoints = new int[partitions];
+		partRightPoints = new int[partitions];
+		partLeftWins = new int[partitions];
+		partRightWins = new int[partitions];
+	}
+
+	/**
+	 * Sets how many threads step the games
+	 * @param parallelism Number of threads (1 steps every game on the calling thread)
+	 */
+	public void setParallelism(int parallelism) {
+		if(parallelism < 1) throw new RuntimeException("Parallelism must be at least 1");
+
+		if(workers != null) workers.shutdown();
+		workers = parallelism > 1 ? new Workers(parallelism) : null;
+
+		allocatePartitions(workers != null ? workers.getPartitions() : 1);
+	}
+
+	/**
+	 * Stops the worker threads, later steps run on the calling thread
+	 */
+	public void shutdown() {
+		setParallelism(1);
+	}
+
+	/**
+	 * Starts a new game for every pair of genomes, has to be called again after the populations bred
+	 */
+	public void setup() {
+		currSpeed = 0;
+		active = size;
+
+		leftPoints = 0;
+		rightPoints = 0;
+		leftWins = 0;
+		rightWins = 0;
+
+		for(int i = 0; i < size; i++) {
+			leftScore[i] = 0;
+			rightScore[i] = 0;
+			leftFitness[i] = 0;
+			rightFitness[i] = 0;
+			running[i] = i;
+
+			reset(i);
+		}
+
+		leftPopulation.prepareNetworks();
+		rightPopulation.prepareNetworks();
+	}
+
+	/**
+	 * Serves a new ball and centers the paddles of one game, same as Match.reset
+	 */
+	void reset(int i) {
+		invulnerable[i] = false;
+		invulnCounter[i] = 0;
+
+		ballX[i] = field.width / 2 - ballWidth / 2;
+		ballY[i] = field.height / 2 - ballHeight / 2;
+
+		SplittableRandom random = randoms[i];
+
+		speed[i] = 500;
+		float yVelo = (float)((random.nextDouble() * 800) - 400f);
+
+		float xVelo = (float)Math.sqrt((Math.pow(speed[i], 2) - Math.pow(yVelo, 2)));
+		if(random.nextDouble() > 0.5) xVelo *= -1;
+
+		veloX[i] = xVelo;
+		veloY[i] = yVelo;
+
+		leftY[i] = field.height / 2 - paddleHeight / 2;
+		rightY[i] = field.height / 2 - paddleHeight / 2;
+	}
+
+	/**
+	 * Runs one frame of every running game: the networks move their paddles, then everything moves like in
+	 * NetworkGame.update. Finished games are dropped from the running list
+	 * @param dt Length of the frame in seconds
+	 */
+	public void step(float dt) {
+		stepDt = dt;
+
+		if(workers == null) {
+			stepRange(0, 0, active);
+		} else {
+			workers.run(active, this::stepRange);
+		}
+
+		//Moves the games each partition kept to the front of the running list and adds up the partitions' results
+		int kept = 0;
+		for(int p = 0; p < partKept.length; p++) {
+			System.arraycopy(running, partStart[p], running, kept, partKept[p]);
+			kept += partKept[p];
+			partKept[p] = 0;
+
+			leftPoints += partLeftPoints[p];
+			rightPoints += partRightPoints[p];
+			leftWins += partLeftWins[p];
+			rightWins += partRightWins[p];
+
+			partLeftPoints[p] = 0;
+			partRightPoints[p] = 0;
+			partLeftWins[p] = 0;
+			partRightWins[p] = 0;
+		}
+		active = kept;
+
+		//Like PaddleModel.currSpeed, inputs always move by the length of the previous frame
+		currSpeed = paddleSpeed * dt;
+	}
+
+	/**
+	 * Steps the games in one part of the running list, compacts that part and counts its points and finished games
+	 */
+	void stepRange(int partition, int start, int end) {
+		float dt = stepDt;
+
+		int leftPoints = 0, rightPoints = 0, leftWins = 0, rightWins = 0;
+
+		int kept = start;
+		for(int k = start; k < end; k++) {
+			int i = running[k];
+
+			handleInput(i, partition, dt);
+			int scored = update(i, dt);
+
+			if(scored == 1) leftPoints++;
+			else if(scored == -1) rightPoints++;
+
+			if(isRunning(i)) running[kept++] = i;
+			else if(getWinner(i) == 1) leftWins++;
+			else rightWins++;
+		}
+
+		partStart[partition] = start;
+		partKept[partition] = kept - start;
+
+		partLeftPoints[partition] = leftPoints;
+		partRightPoints[partition] = rightPoints;
+		partLeftWins[partition] = leftWins;
+		partRightWins[partition] = rightWins;
+	}
+
+	/**
+	 * Lets the networks of a game move their paddles, same as NetworkPlayer.handleInput
+	 */
+	private void handleInput(int i, int partition, float dt) {
+		double[] inputs = this.inputs[partition];
+		double[] leftOutputs = this.leftOutputs[partition];
+		double[] rightOutputs = this.rightOutputs[partition];
+
+		writeInputs(i, true, inputs);
+		leftPopulation.getGenome(i).calculate(inputs, leftOutputs);
+
+		writeInputs(i, false, inputs);
+		rightPopulation.getGenome(i).calculate(inputs, rightOutputs);
+
+		switch(decide(leftOutputs)) {
+		case 0:
+			leftY[i] += currSpeed;
+			leftFitness[i] += dt * NetworkPlayer.MOVE_PENALTY;
+			break;
+		case 2:
+			leftY[i] -= currSpeed;
+			leftFitness[i] += dt * NetworkPlayer.MOVE_PENALTY;
+			break;
+		}
+
+		switch(decide(rightOutputs)) {
+		case 0:
+			rightY[i] += currSpeed;
+			rightFitness[i] += dt * NetworkPlayer.MOVE_PENALTY;
+			break;
+		case 2:
+			rightY[i] -= currSpeed;
+			rightFitness[i] += dt * NetworkPlayer.MOVE_PENALTY;
+			break;
+		}
+	}
+
+	/**
+	 * @return Index of the highest output, like NetworkPlayer
+	 */
+	private static int decide(double[] outputs) {
+		int index = 0;
+		for(int x = 0; x < outputs.length; x++) {
+			if(outputs[x] > outputs[index]) index = x;
+		}
+		return index;
+	}
+
+	/**
+	 * Moves a game by one frame, same as NetworkGame.update
+	 * @return 1 if the left side scored, -1 if the right side scored, 0 otherwise
+	 */
+	private int update(int i, float dt) {
+		float height = field.height;
+		float width = field.width;
+
+		//Ball
+		ballX[i] = ballX[i] + veloX[i] * dt;
+		ballY[i] = ballY[i] + veloY[i] * dt;
+
+		if(ballY[i] < 0) {
+			ballY[i] = 0;
+			veloY[i] *= -1;
+		} else if((ballY[i] + ballHeight) > height) {
+			ballY[i] = height - ballHeight;
+			veloY[i] *= -1;
+		}
+
+		if(invulnerable[i]) invulnCounter[i]++;
+		if(invulnCounter[i] >= invulnTime) {
+			invulnerable[i] = false;
+			invulnCounter[i] = 0;
+		}
+
+		//Paddles
+		if(leftY[i] < 0) leftY[i] = 0;
+		if(leftY[i] + paddleHeight > height) leftY[i] = height - paddleHeight;
+		boolean leftHit = checkBounce(i, leftX, leftY[i]);
+
+		if(rightY[i] < 0) rightY[i] = 0;
+		if(rightY[i] + paddleHeight > height) rightY[i] = height - paddleHeight;
+		boolean rightHit = checkBounce(i, rightX, rightY[i]);
+
+		//Scoring
+		int scored = 0;
+		if(ballX[i] > width) {
+			reset(i);
+			leftScore[i]++;
+			scored = 1;
+		} else if((ballX[i] + ballWidth) < 0) {
+			reset(i);
+			rightScore[i]++;
+			scored = -1;
+		}
+
+		leftFitness[i] = NetworkPlayer.reward(leftFitness[i], scored, leftHit, dt);
+		rightFitness[i] = NetworkPlayer.reward(rightFitness[i], -scored, rightHit, dt);
+
+		return scored;
+	}
+
+	/**
+	 * Bounces the ball of a game off a paddle if they overlap, same as PaddleModel.checkBounce
+	 * @return True if the ball was hit
+	 */
+	private boolean checkBounce(int i, float paddleX, float paddleY) {
+		boolean overlaps = paddleX < ballX[i] + ballWidth && paddleX + paddleWidth > ballX[i] && paddleY < ballY[i] + ballHeight && paddleY + paddleHeight > ballY[i];
+		if(!overlaps || invulnerable[i]) return false;
+
+		float ballCenter = ballY[i] + (ballHeight / 2);
+		float paddleCenter = paddleY + (paddleHeight / 2);
+
+		float maxDis = (paddleHeight / 2) + (ballHeight / 2);
+		float add = 1;
+		if(ballCenter < paddleCenter) {
+			maxDis *= -1;
+			add = -1;
+		}
+
+		float inverseDis = maxDis - (ballCenter - paddleCenter);
+		inverseDis += add;
+
+		float yVector = 2000 / inverseDis;
+
+		//Same as BallModel.bounce
+		float yVelo = veloY[i] + yVector;
+
+		do {
+			speed[i] += 50;
+		} while(speed[i] < (Math.abs(yVelo) + 30));
+
+		float xVelo = (float)Math.sqrt(Math.pow(speed[i], 2) - Math.pow(yVelo, 2));
+
+		if(veloX[i] > 0) xVelo *= -1;
+
+		veloX[i] = xVelo;
+		veloY[i] = yVelo;
+
+		invulnerable[i] = true;
+
+		return true;
+	}
+
+	/**
+	 * Same inputs as Match.getAIInputs
+	 */
+	void writeInputs(int i, boolean left, double[] inputs) {
+		double ballXSpeed = veloX[i];
+		double ballYSpeed = veloY[i];
+
+		double ballX;
+		double ballY = this.ballY[i] + (ballHeight / 2);
+
+		double paddleY;
+		if(left) {
+			paddleY = leftY[i];
+			ballX = this.ballX[i];
+		}
+		else {
+			paddleY = rightY[i];
+			ballX = this.ballX[i] + ballWidth;
+		}
+
+		double paddleBot = paddleY;
+		double paddleMid = paddleY + paddleHeight / 2;
+		double paddleTop = paddleY + paddleHeight;
+
+		inputs[0] = paddleMid;
+		inputs[1] = ballX;
+		inputs[2] = ballY;
+		inputs[3] = ballXSpeed;
+		inputs[4] = ballYSpeed;
+		inputs[5] = ballY - paddleTop;
+		inputs[6] = ballY - paddleMid;
+		inputs[7] = ballY - paddleBot;
+	}
+
+	/**
+	 * Adds the fitness every genome collected since setup to the genome, has to be called before breeding
+	 */
+	public void applyFitness() {
+		for(int i = 0; i < size; i++) {
+			leftPopulation.getGenome(i).increaseFitness(leftFitness[i]);
+			rightPopulation.getGenome(i).increaseFitness(rightFitness[i]);
+
+			leftFitness[i] = 0;
+			rightFitness[i] = 0;
+		}
+	}
+
+	public boolean isRunning(int i) {
+		return leftScore[i] < winScore && rightScore[i] < winScore;
+	}
+
+	/**
+	 * @return True once every game has a winner
+	 */
+	public boolean isOver() {
+		return active == 0;
+	}
+
+	/**
+	 * @return 1 if the left genome won game i, -1 if the right one won, 0 if the game is still running
+	 */
+	public int getWinner(int i) {
+		if(leftScore[i] >= winScore) return 1;
+		else if(rightScore[i] >= winScore) return -1;
+		else return 0;
+	}
+
+	/**
+	 * @return Points scored by the left population since setup
+	 */
+	public int getLeftPoints() {
+		return leftPoints;
+	}
+
+	/**
+	 * @return Points scored by the right population since setup
+	 */
+	public int getRightPoints() {
+		return rightPoints;
+	}
+
+	/**
+	 * @return Games won by the left population since setup
+	 */
+	public int getLeftWins() {
+		return leftWins;
+	}
+
+	/**
+	 * @return Games won by the right population since setup
+	 */
+	public int getRightWins() {
+		return rightWins;
+	}
+
+	public int getLeftScore(int i) {
+		return leftScore[i];
+	}
+
+	public int getRightScore(int i) {
+		return rightScore[i];
+	}
+
+	public int getSize() {
+		return size;
+	}
+}
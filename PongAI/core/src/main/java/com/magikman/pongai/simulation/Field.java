@@ -0,0 +1,61 @@
+package com.magikman.pongai.simulation;
+
+/**
+ * Size of the playing field and of everything on it. The sizes are derived from the height the same way the
+ * sprites used to size themselves, so a headless field of the window's size plays exactly like the window
+ */
+public class Field {
+
+	/**
+	 * Pixel sizes of pongball.png and pongpaddle.png, which decided the sprite sizes
+	 */
+	static final int BALL_TEXTURE_WIDTH = 2, BALL_TEXTURE_HEIGHT = 2;
+	static final int PADDLE_TEXTURE_WIDTH = 2, PADDLE_TEXTURE_HEIGHT = 8;
+
+	/**
+	 * Size of the window the desktop launcher opens
+	 */
+	public static final int DEFAULT_WIDTH = 1000, DEFAULT_HEIGHT = 600;
+
+	final float width, height;
+	final float ballWidth, ballHeight;
+	final float paddleWidth, paddleHeight;
+
+	public Field(int width, int height) {
+		this.width = width;
+		this.height = height;
+
+		float spRatio = height / 12;
+
+		ballWidth = spRatio / (BALL_TEXTURE_WIDTH * 2);
+		ballHeight = spRatio / (BALL_TEXTURE_HEIGHT * 2);
+
+		float paddleR = spRatio / PADDLE_TEXTURE_HEIGHT;
+		paddleWidth = paddleR * PADDLE_TEXTURE_WIDTH;
+		paddleHeight = paddleR * PADDLE_TEXTURE_HEIGHT;
+	}
+
+	public float getWidth() {
+		return width;
+	}
+
+	public float getHeight() {
+		return height;
+	}
+
+	public float getBallWidth() {
+		return ballWidth;
+	}
+
+	public float getBallHeight() {
+		return ballHeight;
+	}
+
+	public float getPaddleWidth() {
+		return paddleWidth;
+	}
+
+	public float getPaddleHeight() {
+		return paddleHeight;
+	}
+}
@@ -0,0 +1,109 @@
+package com.magikman.pongai.simulation;
+
+/**
+ * Turns the variable frame times of the renderer into simulation steps of a fixed length, so the games play the
+ * same no matter the frame rate.<br>
+ * Normally the frame times are collected in an accumulator and one step runs for every full step length in it. In
+ * turbo mode every frame runs a fixed number of steps instead, stopping early once the frame's time budget is used up,
+ * so training runs as fast as the CPU allows while the window stays responsive.<br><br>
+ *
+ * Usage, once per rendered frame:
+ * <pre>
+ * clock.beginFrame(dt);
+ * while(clock.nextStep()) step(clock.getStep());
+ * </pre>
+ */
+public class FixedStep {
+
+	/**
+	 * Step length the games are tuned for
+	 */
+	public static final float DEFAULT_STEP = 1 / 60f;
+
+	/**
+	 * Most steps a normal frame runs to catch up, time beyond that is dropped so a slow frame cannot snowball
+	 */
+	static final int MAX_CATCH_UP = 5;
+
+	final float step;
+	float accumulator = 0;
+
+	int turboSteps = 0;
+	long turboBudget = 0;
+
+	int remaining = 0;
+	int taken = 0;
+	long deadline = 0;
+
+	public FixedStep() {
+		this(DEFAULT_STEP);
+	}
+
+	/**
+	 * @param step Length of a simulation step in seconds
+	 */
+	public FixedStep(float step) {
+		this.step = step;
+	}
+
+	/**
+	 * Turns turbo mode on or off
+	 * @param stepsPerFrame Steps to run every frame, 0 to go back to real time
+	 * @param budgetNanos Most time a frame may spend stepping, at least one step always runs
+	 */
+	public void setTurbo(int stepsPerFrame, long budgetNanos) {
+		this.turboSteps = stepsPerFrame;
+		this.turboBudget = budgetNanos;
+		accumulator = 0;
+	}
+
+	public boolean isTurbo() {
+		return turboSteps > 0;
+	}
+
+	/**
+	 * Starts a rendered frame
+	 * @param frameDt Time since the last frame in seconds
+	 */
+	public void beginFrame(float frameDt) {
+		taken = 0;
+
+		if(isTurbo()) {
+			remaining = turboSteps;
+			deadline = System.nanoTime() + turboBudget;
+			return;
+		}
+
+		accumulator += frameDt;
+
+		int due = (int)(accumulator / step);
+		accumulator -= due * step;
+		remaining = Math.min(due, MAX_CATCH_UP);
+	}
+
+	/**
+	 * @return True if another step should run in this frame
+	 */
+	public boolean nextStep() {
+		if(remaining == 0) return false;
+		if(isTurbo() && taken > 0 && System.nanoTime() >= deadline) return false;
+
+		remaining--;
+		taken++;
+		return true;
+	}
+
+	/**
+	 * @return Length of a step in seconds, the dt every step is run with
+	 */
+	public float getStep() {
+		return step;
+	}
+
+	/**
+	 * @return Number of steps run in the current frame so far
+	 */
+	public int getStepsTaken() {
+		return taken;
+	}
+}
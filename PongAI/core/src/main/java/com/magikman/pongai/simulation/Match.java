@@ -0,0 +1,139 @@
+package com.magikman.pongai.simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * One game of pong without players or rendering: the ball, both paddles and the scores.
+ * Game drives a Match with its controllers and renders from it, NetworkGame plays one between two networks headless
+ */
+public class Match {
+
+	/**
+	 * Number of values written by getAIInputs
+	 */
+	public static final int AI_INPUTS = 8;
+
+	Field field;
+
+	BallModel ball;
+	PaddleModel leftPaddle, rightPaddle;
+
+	int winScore;
+	int leftScore, rightScore;
+
+	public Match(Field field, int winScore) {
+		this(field, winScore, new SplittableRandom());
+	}
+
+	/**
+	 * @param random Source of the serve directions, a seeded one makes the match reproducible
+	 */
+	public Match(Field field, int winScore, SplittableRandom random) {
+		this.field = field;
+		this.winScore = winScore;
+
+		this.ball = new BallModel(field, random);
+		this.leftPaddle = new PaddleModel(field, ball, true);
+		this.rightPaddle = new PaddleModel(field, ball, false);
+	}
+
+	/**
+	 * Moves everything by one frame and scores a point if the ball left the field
+	 * @param dt Length of the frame in seconds
+	 * @return 1 if the left side scored, -1 if the right side scored, 0 otherwise
+	 */
+	public int update(float dt) {
+		ball.update(dt);
+		leftPaddle.update(dt);
+		rightPaddle.update(dt);
+
+		if(ball.getX() > field.width) {
+			reset();
+			leftScore++;
+			return 1;
+		}
+		if((ball.getX() + ball.getWidth()) < 0) {
+			reset();
+			rightScore++;
+			return -1;
+		}
+
+		return 0;
+	}
+
+	public void reset() {
+		ball.reset();
+		leftPaddle.reset();
+		rightPaddle.reset();
+	}
+
+	public int getWinner() {
+		if(leftScore >= winScore) return 1;
+		else if(rightScore >= winScore) return -1;
+		else return 0;
+	}
+
+	/**
+	 * Fills a caller owned array with the network inputs for one side
+	 * @param left True to get the inputs from the left paddle's point of view
+	 * @param inputs Array of at least AI_INPUTS values to write into
+	 */
+	public void getAIInputs(boolean left, double[] inputs) {
+		double ballXSpeed = ball.getVeloX();
+		double ballYSpeed = ball.getVeloY();
+
+		double ballX;
+		double ballY = ball.getCenterY();
+
+		PaddleModel paddle;
+		if(left) {
+			paddle = leftPaddle;
+			ballX = ball.getX();
+		}
+		else {
+			paddle = rightPaddle;
+			ballX = ball.getX() + ball.getWidth();
+		}
+
+		double paddleBot = paddle.getY();
+		double paddleMid = paddle.getY() + paddle.getHeight() / 2;
+		double paddleTop = paddle.getY() + paddle.getHeight();
+
+		double topDis = ballY - paddleTop;
+		double midDis = ballY - paddleMid;
+		double botDis = ballY - paddleBot;
+
+		inputs[0] = paddleMid;
+		inputs[1] = ballX;
+		inputs[2] = ballY;
+		inputs[3] = ballXSpeed;
+		inputs[4] = ballYSpeed;
+		inputs[5] = topDis;
+		inputs[6] = midDis;
+		inputs[7] = botDis;
+	}
+
+	public Field getField() {
+		return field;
+	}
+
+	public BallModel getBall() {
+		return ball;
+	}
+
+	public PaddleModel getLeftPaddle() {
+		return leftPaddle;
+	}
+
+	public PaddleModel getRightPaddle() {
+		return rightPaddle;
+	}
+
+	public int getLeftScore() {
+		return leftScore;
+	}
+
+	public int getRightScore() {
+		return rightScore;
+	}
+}
@@ -0,0 +1,53 @@
+package com.magikman.pongai.simulation;
+
+import java.util.SplittableRandom;
+
+import neuroEvo.GenomeNet;
+
+/**
+ * A Match between two networks, rewarding their fitness for points, hits and staying alive. This is what Trainer
+ * plays one object per pair of genomes, BatchWorld plays the same rules from arrays
+ */
+public class NetworkGame {
+
+	Match match;
+	NetworkPlayer player1, player2;
+
+	/**
+	 * @param random Source of the serve directions, a seeded one makes the game reproducible
+	 */
+	public NetworkGame(GenomeNet mlPlayer1, GenomeNet mlPlayer2, int winScore, Field field, SplittableRandom random) {
+		this.match = new Match(field, winScore, random);
+
+		player1 = new NetworkPlayer(match, match.getLeftPaddle(), mlPlayer1, true);
+		player2 = new NetworkPlayer(match, match.getRightPaddle(), mlPlayer2, false);
+	}
+
+	/**
+	 * Lets both networks move their paddles
+	 * @param dt Length of the frame in seconds
+	 */
+	public void handleInput(float dt) {
+		player1.handleInput(dt);
+		player2.handleInput(dt);
+	}
+
+	/**
+	 * Moves the match by one frame and rewards both networks
+	 * @param dt Length of the frame in seconds
+	 */
+	public void update(float dt) {
+		int scored = match.update(dt);
+
+		player1.reward(scored, match.getLeftPaddle().justHit, dt);
+		player2.reward(-scored, match.getRightPaddle().justHit, dt);
+	}
+
+	public int getWinner() {
+		return match.getWinner();
+	}
+
+	public Match getMatch() {
+		return match;
+	}
+}
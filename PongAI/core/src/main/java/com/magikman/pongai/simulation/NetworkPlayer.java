@@ -0,0 +1,102 @@
+package com.magikman.pongai.simulation;
+
+import neuroEvo.GenomeNet;
+
+/**
+ * Moves a paddle of a Match with a network, without anything from libGDX. Moving costs a little fitness every
+ * frame, so networks that hold still when they do not need to move are preferred
+ */
+public class NetworkPlayer {
+
+	/** Fitness for scoring a point, and for letting one through */
+	public static final int POINT_REWARD = 100, POINT_PENALTY = -70;
+	/** Fitness per second for staying in the game, and per second spent moving */
+	public static final int ALIVE_REWARD = 5, MOVE_PENALTY = -8;
+	/** Fitness for hitting the ball */
+	public static final int HIT_REWARD = 25;
+
+	Match match;
+	PaddleModel paddle;
+	GenomeNet player;
+	boolean isLeft;
+
+	double[] networkInputs = new double[Match.AI_INPUTS];
+	double[] networkOutputs;
+
+	/**
+	 * @param paddle Paddle of the match to move
+	 * @param isLeft True to give the network the inputs from the left paddle's point of view
+	 */
+	public NetworkPlayer(Match match, PaddleModel paddle, GenomeNet player, boolean isLeft) {
+		this.match = match;
+		this.paddle = paddle;
+		this.player = player;
+		this.isLeft = isLeft;
+		this.networkOutputs = new double[player.getOutputSize()];
+	}
+
+	/**
+	 * Lets the network decide whether to move up, down or not at all for this frame
+	 * @param dt Length of the frame in seconds
+	 */
+	public void handleInput(float dt) {
+		match.getAIInputs(isLeft, networkInputs);
+		player.calculate(networkInputs, networkOutputs);
+
+		int index = 0;
+		for(int x = 0; x < networkOutputs.length; x++) {
+			if(networkOutputs[x] > networkOutputs[index]) index = x;
+		}
+
+		switch(index) {
+		case 0:
+			paddle.moveUp();
+			increaseFitness(dt * MOVE_PENALTY);
+			break;
+		case 2:
+			paddle.moveDown();
+			increaseFitness(dt * MOVE_PENALTY);
+			break;
+		}
+	}
+
+	/**
+	 * Rewards the network for one frame of the match
+	 * @param scored 1 if this paddle scored a point, -1 if it let one through, otherwise 0
+	 * @param hit True if this paddle hit the ball
+	 * @param dt Length of the frame in seconds
+	 */
+	public void reward(int scored, boolean hit, float dt) {
+		player.setFitness(reward(player.getFitness(), scored, hit, dt));
+	}
+
+	/**
+	 * Adds the rewards of one frame to a fitness. Every game mode goes through here, so they all train on the same rules
+	 * @param fitness Fitness before the frame
+	 * @param scored 1 if the paddle scored a point, -1 if it let one through, otherwise 0
+	 * @param hit True if the paddle hit the ball
+	 * @param dt Length of the frame in seconds
+	 * @return Fitness after the frame
+	 */
+	public static double reward(double fitness, int scored, boolean hit, float dt) {
+		if(scored == 1) fitness += POINT_REWARD;
+		if(scored == -1) fitness += POINT_PENALTY;
+
+		fitness += ALIVE_REWARD * dt;
+		if(hit) fitness += HIT_REWARD;
+
+		return fitness;
+	}
+
+	public void setFitness(double fitness) {
+		player.setFitness(fitness);
+	}
+
+	public void increaseFitness(double amount) {
+		player.increaseFitness(amount);
+	}
+
+	public GenomeNet getPlayer() {
+		return player;
+	}
+}
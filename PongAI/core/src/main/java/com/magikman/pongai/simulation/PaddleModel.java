@@ -0,0 +1,107 @@
+package com.magikman.pongai.simulation;
+
+/**
+ * State, movement and ball collision of a paddle, without anything from libGDX
+ */
+public class PaddleModel {
+
+	Field field;
+	BallModel gameBall;
+
+	float x, y;
+	float width, height;
+
+	final float speed = 500;
+	float currSpeed = 0;
+
+	boolean left;
+
+	public boolean justHit = false;
+
+	public PaddleModel(Field field, BallModel gameBall, boolean left) {
+		this.field = field;
+		this.gameBall = gameBall;
+		this.left = left;
+
+		this.width = field.paddleWidth;
+		this.height = field.paddleHeight;
+
+		reset();
+	}
+
+	public void reset() {
+		y = field.height / 2 - height / 2;
+
+		if(left) {
+			x = field.width / 8 - width / 2;
+		} else {
+			x = field.width / 8 * 7 - width / 2;
+		}
+	}
+
+	public void update(float dt) {
+		currSpeed = speed * dt;
+
+		if(y < 0) y = 0;
+		if(y + height > field.height) y = field.height - height;
+
+		justHit = checkBounce();
+	}
+
+	public boolean checkBounce() {
+		if(overlapsBall() && !gameBall.getInvulnerable()) {
+			float maxDis = (height / 2) + (gameBall.getHeight() / 2);
+			float add = 1;
+			if(gameBall.getCenterY() < getCenterY()) {
+				maxDis *= -1;
+				add = -1;
+			}
+
+			float inverseDis = maxDis - (gameBall.getCenterY() - getCenterY());
+			inverseDis += add;
+
+			float yVector = 2000 / inverseDis;
+
+			gameBall.bounce(yVector);
+
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Same test as Rectangle.overlaps, touching edges do not count
+	 */
+	boolean overlapsBall() {
+		return x < gameBall.x + gameBall.width && x + width > gameBall.x && y < gameBall.y + gameBall.height && y + height > gameBall.y;
+	}
+
+	public float getCenterY() {
+		return y + (height / 2);
+	}
+
+	public float getX() {
+		return x;
+	}
+
+	public float getY() {
+		return y;
+	}
+
+	public float getWidth() {
+		return width;
+	}
+
+	public float getHeight() {
+		return height;
+	}
+
+	public void moveUp() {
+		y = y + currSpeed;
+	}
+
+	public void moveDown() {
+		y = y - currSpeed;
+	}
+}
@@ -0,0 +1,177 @@
+package com.magikman.pongai.simulation;
+
+/**
+ * Copy of everything the renderer draws from a Trainer: where the ball and paddles of every game are, and the
+ * scores. The training thread captures snapshots while the render thread draws an earlier one, so the renderer never
+ * reads state that is being changed
+ */
+public class Snapshot {
+
+	/**
+	 * Number of the capture this snapshot holds, higher is newer
+	 */
+	volatile long sequence = 0;
+
+	int count = 0;
+	float[] ballX = new float[0], ballY = new float[0];
+	float[] leftY = new float[0], rightY = new float[0];
+	boolean[] running = new boolean[0];
+	float leftX, rightX;
+
+	int leftPoints, rightPoints;
+	int leftWins, rightWins;
+
+	int generation;
+	int leftOverallWins, rightOverallWins;
+	int leftGameWins, rightGameWins;
+
+	/**
+	 * Copies the games and scores of the current generation
+	 */
+	void capture(Trainer trainer) {
+		resize(trainer.popSize);
+
+		BatchWorld world = trainer.getWorld();
+		if(world != null) {
+			System.arraycopy(world.ballX, 0, ballX, 0, count);
+			System.arraycopy(world.ballY, 0, ballY, 0, count);
+			System.arraycopy(world.leftY, 0, leftY, 0, count);
+			System.arraycopy(world.rightY, 0, rightY, 0, count);
+
+			for(int i = 0; i < count; i++) {
+				running[i] = world.isRunning(i);
+			}
+
+			leftX = world.leftX;
+			rightX = world.rightX;
+		} else {
+			NetworkGame[] games = trainer.getGames();
+			for(int i = 0; i < count; i++) {
+				Match match = games[i].getMatch();
+
+				ballX[i] = match.ball.x;
+				ballY[i] = match.ball.y;
+				leftY[i] = match.leftPaddle.y;
+				rightY[i] = match.rightPaddle.y;
+				running[i] = match.getWinner() == 0;
+			}
+
+			if(count > 0) {
+				Match match = games[0].getMatch();
+				leftX = match.leftPaddle.x;
+				rightX = match.rightPaddle.x;
+			}
+		}
+
+		leftPoints = trainer.getLeftPoints();
+		rightPoints = trainer.getRightPoints();
+		leftWins = trainer.getLeftWins();
+		rightWins = trainer.getRightWins();
+	}
+
+	private void resize(int count) {
+		this.count = count;
+		if(ballX.length >= count) return;
+
+		ballX = new float[count];
+		ballY = new float[count];
+		leftY = new float[count];
+		rightY = new float[count];
+		running = new boolean[count];
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public boolean isRunning(int i) {
+		return running[i];
+	}
+
+	public float getBallX(int i) {
+		return ballX[i];
+	}
+
+	public float getBallY(int i) {
+		return ballY[i];
+	}
+
+	public float getLeftY(int i) {
+		return leftY[i];
+	}
+
+	public float getRightY(int i) {
+		return rightY[i];
+	}
+
+	public float getLeftX() {
+		return leftX;
+	}
+
+	public float getRightX() {
+		return rightX;
+	}
+
+	/**
+	 * @return Points scored by the left population in the current generation
+	 */
+	public int getLeftPoints() {
+		return leftPoints;
+	}
+
+	/**
+	 * @return Points scored by the right population in the current generation
+	 */
+	public int getRightPoints() {
+		return rightPoints;
+	}
+
+	/**
+	 * @return Games of the current generation won by the left population
+	 */
+	public int getLeftWins() {
+		return leftWins;
+	}
+
+	/**
+	 * @return Games of the current generation won by the right population
+	 */
+	public int getRightWins() {
+		return rightWins;
+	}
+
+	/**
+	 * @return Number of generations finished since training started
+	 */
+	public int getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * @return Generations in which the left population scored more points
+	 */
+	public int getLeftOverallWins() {
+		return leftOverallWins;
+	}
+
+	/**
+	 * @return Generations in which the right population scored more points
+	 */
+	public int getRightOverallWins() {
+		return rightOverallWins;
+	}
+
+	/**
+	 * @return Games won by the left population over all finished generations
+	 */
+	public int getLeftGameWins() {
+		return leftGameWins;
+	}
+
+	/**
+	 * @return Games won by the right population over all finished generations
+	 */
+	public int getRightGameWins() {
+		return rightGameWins;
+	}
+}
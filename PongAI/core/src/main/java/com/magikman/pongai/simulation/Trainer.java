@@ -0,0 +1,351 @@
+package com.magikman.pongai.simulation;
+
+import java.util.SplittableRandom;
+
+import neuroEvo.Population;
+
+/**
+ * Trains two populations against each other, every genome of the left population plays the genome of the right
+ * population at the same index. Nothing here needs libGDX, so training can run without a window through
+ * {@link #main(String[])}, while PlayState runs the same Trainer one rendered frame at a time.<br>
+ * In batch mode the games are played by a BatchWorld instead of one NetworkGame object per pair, which is what makes
+ * populations of many thousands practical. Batch games cannot be rendered.<br>
+ * With a parallelism above 1 every step splits the running games into partitions that are stepped on a fixed pool of
+ * worker threads. Every partition sums up the points and wins of its own games into its own slot, which the calling
+ * thread adds up after the join, so nothing is locked while stepping
+ */
+public class Trainer {
+
+	Population leftPopulation, rightPopulation;
+	NetworkGame[] games;
+	BatchWorld world;
+
+	int popSize;
+	int winScore;
+	Field field;
+
+	SplittableRandom random;
+
+	/**
+	 * Fewer games than this are always stepped on the calling thread
+	 */
+	public static final int PARALLEL_THRESHOLD = 64;
+
+	/**
+	 * Worker threads, null while stepping on the calling thread
+	 */
+	Workers workers;
+
+	/**
+	 * Points and finished games of every partition in the last step, and their totals
+	 */
+	int[] partLeftPoints, partRightPoints, partLeftWins, partRightWins;
+	int leftPoints, rightPoints, leftWins, rightWins;
+
+	/**
+	 * Step length of the step in progress, read by the partitions
+	 */
+	float stepDt;
+
+	public Trainer(int popSize, int winScore, Field field) {
+		this(popSize, winScore, field, false);
+	}
+
+	/**
+	 * @param batch If true, the games are played by a BatchWorld and getGames returns null
+	 */
+	public Trainer(int popSize, int winScore, Field field, boolean batch) {
+		this(popSize, winScore, field, batch, new SplittableRandom());
+	}
+
+	/**
+	 * @param seed Seed for both populations and every serve. Stepped with a fixed dt, a Trainer with the same seed
+	 * plays and evolves exactly the same way every time
+	 */
+	public Trainer(int popSize, int winScore, Field field, boolean batch, long seed) {
+		this(popSize, winScore, field, batch, new SplittableRandom(seed));
+	}
+
+	private Trainer(int popSize, int winScore, Field field, boolean batch, SplittableRandom random) {
+		this.popSize = popSize;
+		this.winScore = winScore;
+		this.field = field;
+		this.random = random;
+
+		allocatePartitions(1);
+
+		leftPopulation = new Population(Match.AI_INPUTS, 3, popSize, false, random.nextLong());
+		rightPopulation = new Population(Match.AI_INPUTS, 3, popSize, false, random.nextLong());
+
+		if(batch) {
+			world = new BatchWorld(field, winScore, leftPopulation, rightPopulation, random.nextLong());
+		} else {
+			games = new NetworkGame[popSize];
+			setup();
+		}
+	}
+
+	private void allocatePartitions(int partitions) {
+		partLeftPoints = new int[partitions];
+		partRightPoints = new int[partitions];
+		partLeftWins = new int[partitions];
+		partRightWins = new int[partitions];
+	}
+
+	/**
+	 * Sets how many threads step the games
+	 * @param parallelism Number of threads (1 steps every game on the calling thread)
+	 */
+	public void setParallelism(int parallelism) {
+		if(parallelism < 1) throw new RuntimeException("Parallelism must be at least 1");
+
+		if(world != null) {
+			world.setParallelism(parallelism);
+			return;
+		}
+
+		if(workers != null) workers.shutdown();
+		workers = parallelism > 1 ? new Workers(parallelism) : null;
+
+		allocatePartitions(workers != null ? workers.getPartitions() : 1);
+	}
+
+	/**
+	 * Stops the worker threads of this Trainer and its BatchWorld, later steps run on the calling thread
+	 */
+	public void shutdown() {
+		if(world != null) world.shutdown();
+
+		if(workers != null) workers.shutdown();
+		workers = null;
+
+		allocatePartitions(1);
+	}
+
+	/**
+	 * Starts a new game for every pair of genomes
+	 */
+	public void setup() {
+		leftPoints = 0;
+		rightPoints = 0;
+		leftWins = 0;
+		rightWins = 0;
+
+		if(world != null) {
+			world.setup();
+			return;
+		}
+
+		for(int x = 0; x < popSize; x++) {
+			games[x] = new NetworkGame(leftPopulation.getGenome(x), rightPopulation.getGenome(x), winScore, field, random.split());
+		}
+
+		leftPopulation.prepareNetworks();
+		rightPopulation.prepareNetworks();
+	}
+
+	/**
+	 * Runs one frame of every game without a winner: the players move their paddles, then the games update
+	 * @param dt Length of the frame in seconds
+	 */
+	public void step(float dt) {
+		if(world != null) {
+			world.step(dt);
+			return;
+		}
+
+		stepDt = dt;
+
+		if(workers == null || games.length < PARALLEL_THRESHOLD) {
+			stepRange(0, 0, games.length);
+		} else {
+			workers.run(games.length, this::stepRange);
+		}
+
+		leftPoints = 0;
+		rightPoints = 0;
+		leftWins = 0;
+		rightWins = 0;
+
+		for(int p = 0; p < partLeftPoints.length; p++) {
+			leftPoints += partLeftPoints[p];
+			rightPoints += partRightPoints[p];
+			leftWins += partLeftWins[p];
+			rightWins += partRightWins[p];
+
+			partLeftPoints[p] = 0;
+			partRightPoints[p] = 0;
+			partLeftWins[p] = 0;
+			partRightWins[p] = 0;
+		}
+	}
+
+	/**
+	 * Steps the games of one partition and sums up their points and wins
+	 */
+	void stepRange(int partition, int start, int end) {
+		float dt = stepDt;
+
+		int leftPoints = 0, rightPoints = 0, leftWins = 0, rightWins = 0;
+
+		for(int x = start; x < end; x++) {
+			NetworkGame game = games[x];
+
+			if(game.getWinner() == 0) {
+				game.handleInput(dt);
+				game.update(dt);
+			}
+
+			Match match = game.getMatch();
+			leftPoints += match.getLeftScore();
+			rightPoints += match.getRightScore();
+
+			if(game.getWinner() == 1) leftWins++;
+			else if(game.getWinner() == -1) rightWins++;
+		}
+
+		partLeftPoints[partition] = leftPoints;
+		partRightPoints[partition] = rightPoints;
+		partLeftWins[partition] = leftWins;
+		partRightWins[partition] = rightWins;
+	}
+
+	/**
+	 * @return True once every game has a winner
+	 */
+	public boolean isGenerationOver() {
+		if(world != null) return world.isOver();
+
+		for(int x = 0; x < games.length; x++) {
+			if(games[x].getWinner() == 0) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Shifts the right population's fitness to be positive and breeds both populations.
+	 * setup has to be called afterwards to start the next generation's games
+	 */
+	public void breed() {
+		if(world != null) world.applyFitness();
+
+		double minFitness = getMinFitness();
+		for(int x = 0; x < popSize; x++) {
+			rightPopulation.getGenome(x).increaseFitness(minFitness);
+		}
+
+		leftPopulation.breed();
+		rightPopulation.breed();
+
+		for(int x = 0; x < popSize; x++) {
+			rightPopulation.getGenome(x).setFitness(0);
+		}
+	}
+
+	public double getMinFitness() {
+		int index = 0;
+		for(int x = 1; x < popSize; x++) {
+			if(rightPopulation.getGenome(x).getFitness() < rightPopulation.getGenome(index).getFitness()) index = x;
+		}
+
+		return Math.abs(rightPopulation.getGenome(index).getFitness());
+	}
+
+	/**
+	 * @return Winner of game i like Match.getWinner, in either mode
+	 */
+	public int getWinner(int i) {
+		if(world != null) return world.getWinner(i);
+		return games[i].getWinner();
+	}
+
+	/**
+	 * @return Points scored by the left population in the current generation, as of the last step
+	 */
+	public int getLeftPoints() {
+		if(world != null) return world.getLeftPoints();
+		return leftPoints;
+	}
+
+	/**
+	 * @return Points scored by the right population in the current generation, as of the last step
+	 */
+	public int getRightPoints() {
+		if(world != null) return world.getRightPoints();
+		return rightPoints;
+	}
+
+	/**
+	 * @return Games of the current generation won by the left population, as of the last step
+	 */
+	public int getLeftWins() {
+		if(world != null) return world.getLeftWins();
+		return leftWins;
+	}
+
+	/**
+	 * @return Games of the current generation won by the right population, as of the last step
+	 */
+	public int getRightWins() {
+		if(world != null) return world.getRightWins();
+		return rightWins;
+	}
+
+	/**
+	 * @return The games of the current generation, null in batch mode
+	 */
+	public NetworkGame[] getGames() {
+		return games;
+	}
+
+	public Population getLeftPopulation() {
+		return leftPopulation;
+	}
+
+	public Population getRightPopulation() {
+		return rightPopulation;
+	}
+
+	public BatchWorld getWorld() {
+		return world;
+	}
+
+	/**
+	 * Trains without a window
+	 * @param args Number of generations (100 by default), population size (20 by default), "batch" to play the
+	 * games in a BatchWorld ("single" otherwise), a seed to make the run reproducible and the number of threads
+	 */
+	public static void main(String[] args) {
+		int generations = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		int popSize = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+		boolean batch = args.length > 2 && args[2].equals("batch");
+
+		Field field = new Field(Field.DEFAULT_WIDTH, Field.DEFAULT_HEIGHT);
+		Trainer trainer = args.length > 3 ? new Trainer(popSize, 7, field, batch, Long.parseLong(args[3])) : new Trainer(popSize, 7, field, batch);
+		if(args.length > 4) trainer.setParallelism(Integer.parseInt(args[4]));
+		float dt = FixedStep.DEFAULT_STEP;
+
+		long start = System.nanoTime();
+
+		for(int g = 0; g < generations; g++) {
+			int frames = 0;
+			while(!trainer.isGenerationOver()) {
+				trainer.step(dt);
+				frames++;
+			}
+
+			int leftWins = trainer.getLeftWins();
+			int rightWins = trainer.getRightWins();
+
+			trainer.breed();
+			trainer.setup();
+
+			System.out.println("Generation " + g + ": left " + leftWins + " - right " + rightWins + " (" + frames + " frames)");
+		}
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%d games in %.2fs, %.0f games/s%n", generations * popSize, seconds, generations * popSize / seconds);
+	}
+}
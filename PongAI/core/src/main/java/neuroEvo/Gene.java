@@ -13,6 +13,11 @@ public abstract class Gene {
 	
 	int innovNum;
 	
+	/**
+	 * True while this Gene is sitting unused in a GeneArena
+	 */
+	boolean pooled = false;
+	
 	/**
 	 * 
 	 * @param innovNum The Innovation Number is a Gene's particular unique identification number which is used when compared
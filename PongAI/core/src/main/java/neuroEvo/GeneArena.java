@@ -0,0 +1,120 @@
+package neuroEvo;
+
+import java.util.ArrayList;
+
+/**
+ * {@summary This class keeps the Genes of a retired Genome so they can be reused by the next one}<br>
+ * Every Genome owns one arena. When a Genome is retired and reused by the Population, all of its Genes are put back
+ * into its arena, and the Genes it creates while breeding and mutating are taken from there before any new ones are
+ * allocated. This keeps whole Genomes worth of Nodes and Connections from being thrown away every generation<br><br>
+ *
+ * An arena is only ever used by the Genome that owns it, so it needs no synchronization even when the children of a
+ * generation are bred on several threads
+ */
+public class GeneArena {
+	
+	private ArrayList<NodeGene> freeNodes;
+	private ArrayList<ConnectionGene> freeConnections;
+	
+	protected GeneArena() {
+		freeNodes = new ArrayList<>();
+		freeConnections = new ArrayList<>();
+	}
+	
+	/**
+	 * Gets an Input or Output Node
+	 * @param innovNum Innovation Number of the Node
+	 * @param x Position of the Node
+	 * @return A reused or newly created Node
+	 */
+	protected NodeGene node(int innovNum, double x) {
+		return node(innovNum, -1, x);
+	}
+	
+	/**
+	 * Gets a Hidden Node
+	 * @param splitInnov Innovation Number of the Connection that was split to create the Node
+	 * @param x Position of the Node
+	 * @return A reused or newly created Node, without an Innovation Number
+	 */
+	protected NodeGene hiddenNode(int splitInnov, double x) {
+		return node(-1, splitInnov, x);
+	}
+	
+	/**
+	 * Gets a copy of a Node without any of its Connections
+	 * @param original Node to copy
+	 * @return A reused or newly created Node
+	 */
+	protected NodeGene copy(NodeGene original) {
+		return node(original.getInnovNum(), original.getSplitInnov(), original.getX());
+	}
+	
+	/**
+	 * Gets a Node of any kind
+	 * @param innovNum Innovation Number of the Node
+	 * @param splitInnov Innovation Number of the Connection that was split to create the Node (-1 for Input and Output Nodes)
+	 * @param x Position of the Node
+	 * @return A reused or newly created Node
+	 */
+	protected NodeGene node(int innovNum, int splitInnov, double x) {
+		if(freeNodes.isEmpty()) {
+			NodeGene node = new NodeGene(innovNum, x);
+			if(splitInnov != -1) node.recycle(innovNum, splitInnov, x);
+			
+			return node;
+		}
+		
+		NodeGene node = freeNodes.remove(freeNodes.size() - 1);
+		node.pooled = false;
+		node.recycle(innovNum, splitInnov, x);
+		
+		return node;
+	}
+	
+	/**
+	 * Gets a Connection
+	 * @param src Source Node of the Connection
+	 * @param dest Destination Node of the Connection
+	 * @param enabled Sets whether the Connection will default to enabled
+	 * @param weight Initial weight of the Connection
+	 * @return A reused or newly created Connection, without an Innovation Number
+	 */
+	protected ConnectionGene connection(NodeGene src, NodeGene dest, boolean enabled, double weight) {
+		if(freeConnections.isEmpty()) return new ConnectionGene(src, dest, enabled, weight);
+		
+		ConnectionGene con = freeConnections.remove(freeConnections.size() - 1);
+		con.pooled = false;
+		con.recycle(src, dest, enabled, weight);
+		
+		return con;
+	}
+	
+	/**
+	 * Gets a copy of a Connection attached to different Nodes
+	 * @param original Connection to copy
+	 * @param src Source Node of the copy
+	 * @param dest Destination Node of the copy
+	 * @return A reused or newly created Connection with the same Innovation Number, weight and flags as the original
+	 */
+	protected ConnectionGene copy(ConnectionGene original, NodeGene src, NodeGene dest) {
+		ConnectionGene con = connection(src, dest, original.getRawEnabled(), original.getWeight());
+		con.setInnov(original.getInnovNum());
+		con.setHangingValues(original.getInHang(), original.getOutHang());
+		
+		return con;
+	}
+	
+	/**
+	 * Puts a Gene back into the arena (Genes that are already in the arena are ignored)
+	 * @param gene Gene that is no longer used by any Genome
+	 */
+	protected void reclaim(Gene gene) {
+		if(gene == null || gene.pooled) return;
+		
+		gene.pooled = true;
+		
+		if(gene instanceof NodeGene) freeNodes.add((NodeGene)gene);
+		else if(gene instanceof ConnectionGene) freeConnections.add((ConnectionGene)gene);
+	}
+}
@@ -0,0 +1,135 @@
+package neuroEvo;
+
+import java.util.HashMap;
+
+/**
+ * {@summary This class indexes a list of Genes by their structure and by their Innovation Numbers}<br>
+ * It answers the same question as comparing a Gene against every Gene in a list with the "known" method, but with
+ * a constant time lookup instead of a scan of the whole list<br><br>
+ *
+ * Connections are indexed by the Innovation Numbers of their Source and Destination Nodes, and Hidden Nodes by the
+ * Innovation Number of the Connection they split. The keys are taken when a Gene is added, and when two Genes share a
+ * key the first one added is kept
+ */
+public class GeneIndex {
+	
+	private HashMap<Long, ConnectionGene> connectionsByLink;
+	private HashMap<Integer, ConnectionGene> connectionsByInnov;
+	
+	private HashMap<Integer, NodeGene> nodesBySplit;
+	private HashMap<Integer, NodeGene> nodesByInnov;
+	
+	private int size;
+	
+	protected GeneIndex() {
+		connectionsByLink = new HashMap<>();
+		connectionsByInnov = new HashMap<>();
+		nodesBySplit = new HashMap<>();
+		nodesByInnov = new HashMap<>();
+		
+		size = 0;
+	}
+	
+	/**
+	 * Builds the structural key of a Connection
+	 * @param srcInnov Innovation Number of the Source Node
+	 * @param destInnov Innovation Number of the Destination Node
+	 * @return Key combining both Innovation Numbers
+	 */
+	protected static long linkKey(int srcInnov, int destInnov) {
+		return ((long)srcInnov << 32) | (destInnov & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Adds a Gene to the index (the Gene's Innovation Number must already be set)
+	 * @param gene Gene to add
+	 */
+	protected void add(Gene gene) {
+		if(gene instanceof ConnectionGene) {
+			ConnectionGene con = (ConnectionGene)gene;
+			
+			if(con.getSrc() != null && con.getDest() != null) {
+				long key = linkKey(con.getSrc().getInnovNum(), con.getDest().getInnovNum());
+				if(!connectionsByLink.containsKey(key)) connectionsByLink.put(key, con);
+			}
+			
+			if(!connectionsByInnov.containsKey(con.getInnovNum())) connectionsByInnov.put(con.getInnovNum(), con);
+		
+		} else if(gene instanceof NodeGene) {
+			NodeGene node = (NodeGene)gene;
+			
+			if(node.getSplitInnov() != -1 && !nodesBySplit.containsKey(node.getSplitInnov())) nodesBySplit.put(node.getSplitInnov(), node);
+			if(!nodesByInnov.containsKey(node.getInnovNum())) nodesByInnov.put(node.getInnovNum(), node);
+		}
+		
+		size++;
+	}
+	
+	/**
+	 * Searches for a Gene that is equivalent to the given Gene
+	 * @param test Gene to search for an equivalent of
+	 * @return The first Gene added that is equivalent to the test Gene, or null if none exist
+	 */
+	protected Gene find(Gene test) {
+		if(test instanceof ConnectionGene) {
+			ConnectionGene con = (ConnectionGene)test;
+			
+			if(con.getSrc() != null && con.getDest() != null) {
+				ConnectionGene found = connectionsByLink.get(linkKey(con.getSrc().getInnovNum(), con.getDest().getInnovNum()));
+				if(found != null) return found;
+			}
+			
+			//Loose Connections can only be compared by their Innovation Numbers
+			ConnectionGene found = connectionsByInnov.get(con.getInnovNum());
+			if(found != null && (con.getLoose() || con.getSrc() == null || con.getDest() == null || found.getSrc() == null || found.getDest() == null)) return found;
+			
+			return null;
+		}
+		
+		if(test instanceof NodeGene) {
+			NodeGene node = (NodeGene)test;
+			
+			if(node.getSplitInnov() == -1) return nodesByInnov.get(node.getInnovNum());
+			
+			NodeGene found = nodesBySplit.get(node.getSplitInnov());
+			if(found != null) return found;
+			
+			//Input and Output Nodes have no split Connection and can only be compared by their Innovation Numbers
+			found = nodesByInnov.get(node.getInnovNum());
+			if(found != null && found.getSplitInnov() == -1) return found;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Gets a Gene by its Innovation Number
+	 * @param innovNum Innovation Number to search for
+	 * @param node True if searching for a NodeGene, false if searching for a ConnectionGene
+	 * @return The first Gene added with the Innovation Number (null if none exist)
+	 */
+	protected Gene get(int innovNum, boolean node) {
+		if(node) return nodesByInnov.get(innovNum);
+		return connectionsByInnov.get(innovNum);
+	}
+	
+	/**
+	 * Getter for the number of Genes that have been added
+	 * @return Number of Genes added to the index, including Genes that were equivalent to an earlier Gene
+	 */
+	protected int size() {
+		return size;
+	}
+	
+	/**
+	 * Empties the index
+	 */
+	protected void clear() {
+		connectionsByLink.clear();
+		connectionsByInnov.clear();
+		nodesBySplit.clear();
+		nodesByInnov.clear();
+		
+		size = 0;
+	}
+}
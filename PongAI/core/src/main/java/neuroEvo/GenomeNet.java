@@ -38,10 +38,14 @@ public class GenomeNet{
 	 */
 	protected ArrayList<Gene> allGenes;
 	
-	private double[] stBasicMutationRates = {0.34, 0.03, 0.1, 0.1, 0.1};
-	private double[] fnBasicMutationRates = {0.13, 0.012, 0.01, 0.025, 0.015};
+	private static final double[] ST_BASIC_MUTATION_RATES = {0.34, 0.03, 0.1, 0.1, 0.1};
+	private static final double[] FN_BASIC_MUTATION_RATES = {0.13, 0.012, 0.01, 0.025, 0.015};
+	private static final double[] COMPLEX_MUTATION_RATES = {0.05, 0.05};
 	
-	private double[] complexMutationRates = {0.05, 0.05};
+	private double[] stBasicMutationRates = ST_BASIC_MUTATION_RATES.clone();
+	private double[] fnBasicMutationRates = FN_BASIC_MUTATION_RATES.clone();
+	
+	private double[] complexMutationRates = COMPLEX_MUTATION_RATES.clone();
 	
 	private final double keepChains = 0.7;
 	
@@ -50,14 +54,57 @@ public class GenomeNet{
 	
 	private Population owner;
 	
+	/**
+	 * This Genome's own random stream, used for every random decision made while breeding and mutating it
+	 */
+	private SplittableRandom random;
+	
+	/**
+	 * Genes of this Genome's previous life, reused before any new Genes are allocated
+	 */
+	private GeneArena arena;
+	
+	/**
+	 * Compiled version of the genetic code used for Forward Propagation (null until first needed)
+	 */
+	private CompiledNet compiled;
+	
+	/**
+	 * True when the Genome's structure changed and the Node and Gene lists have to be rebuilt
+	 */
+	private boolean topologyDirty = true;
+	
+	/**
+	 * True when only Connection weights changed since the network was compiled
+	 */
+	private boolean weightsDirty = false;
+	
+	/**
+	 * Index of allGenes, used to search the Genome's genetic code by structure or by innovation number
+	 */
+	private GeneIndex localGenes;
+	
+	/**
+	 * Position of the first Gene with each innovation number in the nodes, connections and hangingConnections lists
+	 */
+	private IntIntMap nodePositions;
+	private IntIntMap connectionPositions;
+	private IntIntMap hangingPositions;
+	
+	/**
+	 * True when Genes were removed or reordered, so the positions have to be rebuilt before they are used
+	 */
+	private boolean positionsStale = true;
+	
 	/**
 	 * 
 	 * @param inputs Integer value of the input layer size
 	 * @param outputs Integer value of the output layer size
 	 * @param generation Current generation number
 	 * @param owner User defined population that houses this Genome
+	 * @param random Random stream of this Genome
 	 */
-	protected GenomeNet(int inputs, int outputs, int generation, Population owner) {
+	protected GenomeNet(int inputs, int outputs, int generation, Population owner, SplittableRandom random) {
 		
 		this.inputs = inputs;
 		this.outputs = outputs;
@@ -67,7 +114,15 @@ public class GenomeNet{
 		this.nodes = new ArrayList<>();
 		this.allGenes = new ArrayList<>();
 		
+		this.localGenes = new GeneIndex();
+		this.nodePositions = new IntIntMap();
+		this.connectionPositions = new IntIntMap();
+		this.hangingPositions = new IntIntMap();
+		
+		this.arena = new GeneArena();
+		
 		this.owner = owner;
+		this.random = random;
 		
 		fitness = 0;
 		
@@ -75,19 +130,37 @@ public class GenomeNet{
 		else setMutationRates(generation);
 	}
 	
-	protected GenomeNet(int inputs, int outputs, ArrayList<Gene> genes, Population owner) {
+	protected GenomeNet(int inputs, int outputs, ArrayList<Gene> genes, Population owner, SplittableRandom random) {
 		this.inputs = inputs;
 		this.outputs = outputs;
 		this.owner = owner;
+		this.random = random;
 		
 		this.connections = new ArrayList<>();
 		this.hangingConnections = new ArrayList<>();
 		this.nodes = new ArrayList<>();
-		this.allGenes = genes;
+		this.allGenes = new ArrayList<>();
+		
+		this.localGenes = new GeneIndex();
+		this.nodePositions = new IntIntMap(genes.size());
+		this.connectionPositions = new IntIntMap(genes.size());
+		this.hangingPositions = new IntIntMap();
+		
+		this.arena = new GeneArena();
 		
 		fitness = 0;
 		
-		for(Gene n: allGenes) {
+		loadGenes(genes);
+	}
+	
+	/**
+	 * Fills an empty Genome with a list of Genes
+	 * @param genes Genes to sort into the Node and Connection lists
+	 */
+	private void loadGenes(ArrayList<Gene> genes) {
+		for(Gene n: genes) {
+			allGenes.add(n);
+			
 			if(n instanceof NodeGene) nodes.add((NodeGene)n);
 			else if(n instanceof ConnectionGene) {
 				if(((ConnectionGene)n).getLoose()) hangingConnections.add((ConnectionGene)n);
@@ -95,7 +168,72 @@ public class GenomeNet{
 			}
 		}
 		
-		updateAllGenes();
+		markTopologyChanged();
+		refreshTopology();
+	}
+	
+	/**
+	 * Gets an empty Genome for breeding, reusing a retired Genome when one is given
+	 * @param retired Genome that is no longer part of the Population (null to create a new Genome)
+	 * @param generation Generation of the Genome (0 keeps the initial mutation rates)
+	 * @param random Random stream of the Genome
+	 * @return An empty Genome
+	 */
+	private GenomeNet obtain(GenomeNet retired, int generation, SplittableRandom random) {
+		if(retired == null) return new GenomeNet(this.inputs, this.outputs, generation, owner, random);
+		
+		retired.recycle(generation, random);
+		return retired;
+	}
+	
+	/**
+	 * Empties a retired Genome so it can be reused, putting all of its Genes back into its arena
+	 * @param generation Generation of the Genome it is reused as (0 keeps the initial mutation rates)
+	 * @param random Random stream of the reused Genome
+	 */
+	private void recycle(int generation, SplittableRandom random) {
+		for(NodeGene n: nodes) {
+			arena.reclaim(n.getOrgInput());
+			arena.reclaim(n.getOrgOutput());
+		}
+		
+		for(Gene n: allGenes) {
+			arena.reclaim(n);
+		}
+		
+		for(NodeGene n: nodes) {
+			arena.reclaim(n);
+		}
+		
+		for(ConnectionGene con: connections) {
+			arena.reclaim(con);
+		}
+		
+		for(ConnectionGene con: hangingConnections) {
+			arena.reclaim(con);
+		}
+		
+		nodes.clear();
+		connections.clear();
+		hangingConnections.clear();
+		allGenes.clear();
+		
+		localGenes.clear();
+		positionsStale = true;
+		
+		compiled = null;
+		topologyDirty = true;
+		weightsDirty = false;
+		
+		stBasicMutationRates = ST_BASIC_MUTATION_RATES.clone();
+		fnBasicMutationRates = FN_BASIC_MUTATION_RATES.clone();
+		complexMutationRates = COMPLEX_MUTATION_RATES.clone();
+		currBasicMutationRates = stBasicMutationRates;
+		
+		fitness = 0;
+		this.random = random;
+		
+		if(generation != 0) setMutationRates(generation);
 	}
 	
 	private void initialize() {
@@ -103,7 +241,7 @@ public class GenomeNet{
 			double x = 0;
 			if(count >= inputs) x = 1;
 			
-			NodeGene n = new NodeGene(count, x);
+			NodeGene n = arena.node(count, x);
 			
 			int testEqual = searchForGlobalEqual(n);
 			n.setInnovNum(testEqual);
@@ -113,73 +251,121 @@ public class GenomeNet{
 	}
 	
 	private void addGene(Gene add) {
+		markTopologyChanged();
 		allGenes.add(add);
+		localGenes.add(add);
 		if(add instanceof ConnectionGene) {
-			connections.add((ConnectionGene)add);
+			appendConnection((ConnectionGene)add);
 		}
-		if(add instanceof NodeGene) nodes.add((NodeGene)add);
+		if(add instanceof NodeGene) appendNode((NodeGene)add);
 	}
 	
 	private void addHanging(ConnectionGene add) {
+		markTopologyChanged();
 		allGenes.add(add);
+		localGenes.add(add);
+		appendHanging(add);
+	}
+	
+	private void appendNode(NodeGene add) {
+		nodes.add(add);
+		if(!positionsStale) nodePositions.putIfAbsent(add.getInnovNum(), nodes.size() - 1);
+	}
+	
+	private void appendConnection(ConnectionGene add) {
+		connections.add(add);
+		if(!positionsStale) connectionPositions.putIfAbsent(add.getInnovNum(), connections.size() - 1);
+	}
+	
+	private void appendHanging(ConnectionGene add) {
 		hangingConnections.add(add);
+		if(!positionsStale) hangingPositions.putIfAbsent(add.getInnovNum(), hangingConnections.size() - 1);
 	}
 	
-	private int searchForLocalEqual(Gene test) {
-		int innovNum = -1;
-		
-		for(Gene n: this.allGenes) {
-			if(test.getClass() == n.getClass()) {
-				if(n.known(test)) {
-					innovNum = n.getInnovNum();
-					break;
-				}
+	private void removeNode(int index) {
+		NodeGene removed = nodes.remove(index);
+		if(!positionsStale) removePosition(nodePositions, nodes, index, removed.getInnovNum());
+	}
+	
+	private void removeConnection(int index) {
+		ConnectionGene removed = connections.remove(index);
+		if(!positionsStale) removePosition(connectionPositions, connections, index, removed.getInnovNum());
+	}
+	
+	private void removeHanging(int index) {
+		ConnectionGene removed = hangingConnections.remove(index);
+		if(!positionsStale) removePosition(hangingPositions, hangingConnections, index, removed.getInnovNum());
+	}
+	
+	/**
+	 * Updates the positions of a list after a Gene was removed from it, so they do not have to be rebuilt
+	 * @param positions Positions of the list's Genes
+	 * @param list List the Gene was removed from
+	 * @param index Position the Gene was removed from
+	 * @param innovNum Innovation Number of the removed Gene
+	 */
+	private static void removePosition(IntIntMap positions, ArrayList<? extends Gene> list, int index, int innovNum) {
+		positions.decrementAbove(index);
+		if(positions.get(innovNum, -1) != index) return;
+		
+		//The removed Gene was the first with its Innovation Number, so the next copy (if there is one) takes its place
+		for(int x = index; x < list.size(); x++) {
+			if(list.get(x).getInnovNum() == innovNum) {
+				positions.put(innovNum, x);
+				return;
 			}
 		}
 		
-		return innovNum;
+		positions.remove(innovNum);
+	}
+	
+	private int searchForLocalEqual(Gene test) {
+		Gene known = localGenes.find(test);
+		if(known == null) return -1;
+		
+		return known.getInnovNum();
 	}
 	
 	/**
 	 * This method searches if a Gene has existed in the population's past
 	 * @param test Gene to search for equivalent
-	 * @return Returns the innovation number of the equivalent gene, or -1 if no equivalences exist
+	 * @return Returns the innovation number of the equivalent gene, or the newly assigned innovation number if no equivalences exist
 	 */
 	protected int searchForGlobalEqual(Gene test) {
-		int innovNum = -1;
-		for(Gene n: owner.LIST_OF_KNOWN_GENES) {
-			if(test.getClass() == n.getClass()) {
-				if(n.known(test)) {
-					innovNum = n.getInnovNum();
-					break;
-				}
-			}
-		}
-		
-		if(innovNum == -1) {
-			if(test instanceof NodeGene) innovNum = owner.LIST_OF_KNOWN_GENES.size();
+		//Children can be bred on several threads, so the search and the registration have to happen as one step
+		synchronized(owner.KNOWN_GENES) {
+			Gene known = owner.KNOWN_GENES.find(test);
+			if(known != null) return known.getInnovNum();
+			
+			int innovNum = -1;
+			if(test instanceof NodeGene) innovNum = owner.KNOWN_GENES.size();
 			if(test instanceof ConnectionGene) innovNum = ((ConnectionGene)test).initInnov();
 			test.setInnovNum(innovNum);
 			
-			owner.LIST_OF_KNOWN_GENES.add(test);
+			//The registry keeps its own copy, so the Genes of a Genome can be reused once it is retired
+			owner.KNOWN_GENES.add(detach(test));
+			
+			return innovNum;
 		}
-		
-		return innovNum;
 	}
 	
-	private Gene getGeneByLocalInnov(int innovNum, boolean node) {
-		Gene ret = null;
+	/**
+	 * Copies a Gene (and the Nodes of a Connection) without linking it to any Genome
+	 * @param gene Gene to copy
+	 * @return A copy that shares no objects with the Gene's Genome
+	 */
+	private static Gene detach(Gene gene) {
+		if(gene instanceof NodeGene) return ((NodeGene)gene).copy();
 		
-		for(Gene n: this.allGenes) {
-			if(!((n instanceof NodeGene) ^ (node == true))) {
-				if(n.getInnovNum() == innovNum) {
-					ret = n;
-					break;
-				}
-			}
-		}
+		ConnectionGene con = (ConnectionGene)gene;
+		NodeGene src = con.getSrc() == null ? null : con.getSrc().copy();
+		NodeGene dest = con.getDest() == null ? null : con.getDest().copy();
 		
-		return ret;
+		return con.copy(src, dest);
+	}
+	
+	private Gene getGeneByLocalInnov(int innovNum, boolean node) {
+		return localGenes.get(innovNum, node);
 	}
 	
 	/**
@@ -189,60 +375,57 @@ public class GenomeNet{
 	 * @return The Gene that matches the Innovation Number being searched for (null if none exist)
 	 */
 	protected Gene getGeneByGlobalInnov(int innovNum, boolean node) {
-		Gene ret = null;
-		
-		for(Gene n: owner.LIST_OF_KNOWN_GENES) {
-			if(!((n instanceof NodeGene) ^ (node == true))) {
-				if(n.getInnovNum() == innovNum) {
-					ret = n;
-					break;
-				}
-			}
+		synchronized(owner.KNOWN_GENES) {
+			return owner.KNOWN_GENES.get(innovNum, node);
 		}
-		
-		return ret;
 	}
 	
 	private void sortNodesByX() {
-		boolean swap = true;
-		
-		while(swap) {
-			swap = false;
-			for(int x = 1; x < nodes.size(); x++) {
-				if(nodes.get(x).getX() < nodes.get(x - 1).getX()) {
-					NodeGene placeHold = nodes.get(x);
-					nodes.set(x, nodes.get(x - 1));
-					nodes.set(x - 1, placeHold);
-					swap = true;
-				}
-			}
-		}
+		//List.sort is stable, so Nodes sharing an x position keep their relative order
+		nodes.sort(Comparator.comparingDouble(NodeGene::getX));
+		positionsStale = true;
 		
 		updateAllGenes();
 	}
 	
-	private int getNodeReference(NodeGene search) {
+	/**
+	 * Rebuilds the positions of the Genes in the nodes, connections and hangingConnections lists if they are stale
+	 */
+	private void ensurePositions() {
+		if(!positionsStale) return;
+		
+		nodePositions.clear();
+		connectionPositions.clear();
+		hangingPositions.clear();
+		
 		for(int x = 0; x < nodes.size(); x++) {
-			if(nodes.get(x).equals(search)) return x;
+			nodePositions.putIfAbsent(nodes.get(x).getInnovNum(), x);
 		}
 		
-		return -1;
-	}
-	
-	private int getConnectionReference(ConnectionGene search) {
 		for(int x = 0; x < connections.size(); x++) {
-			if(connections.get(x).equals(search)) return x;
+			connectionPositions.putIfAbsent(connections.get(x).getInnovNum(), x);
 		}
 		
-		return -1;
-	}
-	
-	private int getHangingConnectionReference(ConnectionGene search) {
 		for(int x = 0; x < hangingConnections.size(); x++) {
-			if(hangingConnections.get(x).equals(search)) return x;
+			hangingPositions.putIfAbsent(hangingConnections.get(x).getInnovNum(), x);
 		}
 		
-		return -1;
+		positionsStale = false;
+	}
+	
+	private int getNodeReference(NodeGene search) {
+		ensurePositions();
+		return nodePositions.get(search.getInnovNum(), -1);
+	}
+	
+	private int getConnectionReference(ConnectionGene search) {
+		ensurePositions();
+		return connectionPositions.get(search.getInnovNum(), -1);
+	}
+	
+	private int getHangingConnectionReference(ConnectionGene search) {
+		ensurePositions();
+		return hangingPositions.get(search.getInnovNum(), -1);
 	}
 	
 	
@@ -253,62 +436,79 @@ public class GenomeNet{
 	 */
 	public double[] calculate(double[] inputs) {
 		
-		sortNodesByX();
-		
-		for(int x = 0; x < this.inputs; x++) {
-			nodes.get(x).setVal(inputs[x]);
-		}
-		
-		updateAllGenes();
-		
-		double nodeValue = 0;
-		
-		for(int x = this.inputs; x < nodes.size(); x++) {
-			nodeValue = 0;
-			
-			NodeGene realNode = (NodeGene)this.getGeneByLocalInnov(nodes.get(x).getInnovNum(), true);
-			
-			for(ConnectionGene con: realNode.getInputs()) {
-				ConnectionGene realCon = (ConnectionGene)this.getGeneByLocalInnov(con.getInnovNum(), false);
-				
-				if(!realCon.getEnabled() || realCon.getLoose()) continue;
-				
-				NodeGene input = (NodeGene)this.getGeneByLocalInnov(realCon.getSrc().getInnovNum(), true);
-				
-				nodeValue += input.getValue() * realCon.getWeight();
-				
-			}
-			
-			nodes.get(x).setVal(nodeValue);
-			nodes.get(x).activate();
-			
-		}
+		prepareNetwork();
 		
-		updateAllGenes();
+		return compiled.calculate(inputs);
+	}
+	
+	/**
+	 * Calculate method that writes into a caller owned array instead of allocating one (Can be called from Client Code)
+	 * @param inputs Array to use as inputs for the Forward Propagation
+	 * @param outputs Array the outputs are written into (must be at least the size of the output layer)
+	 */
+	public void calculate(double[] inputs, double[] outputs) {
 		
-		double[] outputs = new double[this.outputs];
+		prepareNetwork();
 		
-		for(int x = 0; x < this.outputs; x++) {
-			int index = (nodes.size() - 1) - x;
-			int arrIndex = (this.outputs - 1) - x;
-			
-			outputs[arrIndex] = nodes.get(index).getValue();
-			
-		}
+		compiled.calculate(inputs, outputs);
+	}
+	
+	/**
+	 * Makes sure the compiled network is built and holds the current weights<br>
+	 * Once this has been called, calculations do not change any state outside of this Genome's compiled network
+	 */
+	protected void prepareNetwork() {
+		if(compiled == null) compile();
+		else if(weightsDirty) compiled.refreshWeights();
 		
+		weightsDirty = false;
+	}
+	
+	/**
+	 * Builds the compiled network from the current genetic code
+	 */
+	private void compile() {
+		refreshTopology();
+		compiled = new CompiledNet(nodes, allGenes, this.inputs, this.outputs, owner.getActivation(), owner.getSinglePrecision());
+	}
+	
+	/**
+	 * Discards the compiled network so it will be rebuilt on the next calculation<br>
+	 * Must be called whenever a Connection is enabled or disabled
+	 */
+	protected void invalidateNetwork() {
+		compiled = null;
+	}
+	
+	/**
+	 * Flags the structure of this Genome as changed, which also discards the compiled network<br>
+	 * Must be called whenever Nodes or Connections are added, removed or relinked
+	 */
+	protected void markTopologyChanged() {
+		topologyDirty = true;
+		compiled = null;
+	}
+	
+	/**
+	 * Rebuilds the sorted Node list and the Gene lists, but only if the structure changed since the last rebuild
+	 */
+	protected void refreshTopology() {
+		if(!topologyDirty) return;
 		
-		return outputs;
+		sortNodesByX();
+		topologyDirty = false;
 	}
 	
 	private void updateAllGenes() {
 		allGenes.clear();
+		localGenes.clear();
 		
 		for(int x = 0; x < nodes.size(); x++) {
 			nodes.get(x).reset(false);
 			
 			if(nodes.get(x).getHidden()) {
 				if(nodes.get(x).getOrgInput() != null) {
-					if(!nodes.get(x).getOrgInput().isContained(connections)) connections.add(nodes.get(x).getOrgInput());
+					if(getConnectionReference(nodes.get(x).getOrgInput()) == -1) appendConnection(nodes.get(x).getOrgInput());
 				}
 			}
 		}
@@ -334,14 +534,17 @@ public class GenomeNet{
 		
 		for(NodeGene n: nodes) {
 			allGenes.add(n);
+			localGenes.add(n);
 		}
 		
 		for(ConnectionGene con: connections) {
 			allGenes.add(con);
+			localGenes.add(con);
 		}
 		
 		for(ConnectionGene con: hangingConnections) {
 			allGenes.add(con);
+			localGenes.add(con);
 		}
 		
 	}
@@ -351,10 +554,15 @@ public class GenomeNet{
 	 * Breeding method which will create a mix of the Genetic Code of 2 parents to create a child
 	 * @param g2 The second parent for use in breeding (this Genome will be the first)
 	 * @param generation Pass the generation to use in the Child Genome declaration
-	 * @return Returns the Child Genome produced by the Gene mixing of the 2 parents
+	 * @param random Random stream of the Child Genome, also used for the Gene mixing
+	 * @param retired Retired Genome to reuse as the Child Genome (null to create a new Genome)
+	 * @return Returns the Child Genome produced by the Gene mixing of the 2 parents<br><br>
+	 * 
+	 * The child receives copies of the parents' Genes, so the parents are only read and several children can be bred
+	 * from the same parents at the same time
 	 */
-	protected GenomeNet crossover(GenomeNet g2, int generation) {
-		GenomeNet child = new GenomeNet(this.inputs, this.outputs, generation + 1, owner);
+	protected GenomeNet crossover(GenomeNet g2, int generation, SplittableRandom random, GenomeNet retired) {
+		GenomeNet child = obtain(retired, generation + 1, random);
 		
 		GenomeNet[] parents = {this, g2};
 		
@@ -362,6 +570,10 @@ public class GenomeNet{
 		ArrayList<ConnectionGene> orgInputs = new ArrayList<>();
 		ArrayList<ConnectionGene> orgOutputs = new ArrayList<>();
 		
+		//Innovation numbers of the original Connections, so membership checks do not scan the lists
+		IntIntMap orgInputSet = new IntIntMap();
+		IntIntMap orgOutputSet = new IntIntMap();
+		
 		double chanceCarryOver = 0.5;
 		for(NodeGene n: parents[0].nodes) {
 			chanceCarryOver = 0.5;
@@ -369,13 +581,14 @@ public class GenomeNet{
 				if(n.isContained(chainNode)) chanceCarryOver = keepChains;
 			}
 			
-			if(parents[1].searchForLocalEqual(n) != -1 || Math.random() < chanceCarryOver) {
+			if(parents[1].searchForLocalEqual(n) != -1 || random.nextDouble() < chanceCarryOver) {
 				
-				NodeGene add = n;
+				NodeGene add = child.arena.copy(n);
 				
+				//The copy comes without Connections, so the original ones are read from the parent's Node
 				if(add.getHidden()) {
-					if(add.getOrgInput() != null && !add.getOrgInput().isContained(orgInputs)) orgInputs.add(add.getOrgInput());
-					if(add.getOrgOutput() != null && !add.getOrgOutput().isContained(orgOutputs)) orgOutputs.add(add.getOrgOutput());
+					if(n.getOrgInput() != null && orgInputSet.putIfAbsent(n.getOrgInput().getInnovNum(), 0)) orgInputs.add(n.getOrgInput());
+					if(n.getOrgOutput() != null && orgOutputSet.putIfAbsent(n.getOrgOutput().getInnovNum(), 0)) orgOutputs.add(n.getOrgOutput());
 					
 				}
 				
@@ -393,13 +606,14 @@ public class GenomeNet{
 				if(n.isContained(chainNode)) chanceCarryOver = keepChains;
 			}
 			
-			if((parents[0].searchForLocalEqual(n) != -1 || Math.random() < chanceCarryOver) && child.searchForLocalEqual(n) == -1) {
+			if((parents[0].searchForLocalEqual(n) != -1 || random.nextDouble() < chanceCarryOver) && child.searchForLocalEqual(n) == -1) {
 				
-				NodeGene add = n;
+				NodeGene add = child.arena.copy(n);
 				
+				//The copy comes without Connections, so the original ones are read from the parent's Node
 				if(add.getHidden()) {
-					if(add.getOrgInput() != null && !add.getOrgInput().isContained(orgInputs)) orgInputs.add(add.getOrgInput());
-					if(add.getOrgOutput() != null && !add.getOrgOutput().isContained(orgOutputs)) orgOutputs.add(add.getOrgOutput());
+					if(n.getOrgInput() != null && orgInputSet.putIfAbsent(n.getOrgInput().getInnovNum(), 0)) orgInputs.add(n.getOrgInput());
+					if(n.getOrgOutput() != null && orgOutputSet.putIfAbsent(n.getOrgOutput().getInnovNum(), 0)) orgOutputs.add(n.getOrgOutput());
 					
 				}
 				child.addGene(add);
@@ -407,10 +621,6 @@ public class GenomeNet{
 			}
 		}
 		
-		for(int x = 0; x < child.nodes.size(); x++) {
-			child.nodes.get(x).reset(true);
-		}
-		
 		for(int x = 0; x < orgInputs.size(); x++) {
 			if(orgInputs.get(x) == null) {
 				orgInputs.remove(x);
@@ -429,21 +639,12 @@ public class GenomeNet{
 		
 		for(ConnectionGene con: parents[0].connections) {
 			if(child.connections.size() < maxAllow) {
-				if(child.checkConnectionEligible(con) && !con.isContained(orgInputs) && !con.isContained(orgOutputs)) {
-					if(parents[1].searchForLocalEqual(con) != -1 || Math.random() < 0.5) {
-						ConnectionGene add = con;
-						
-						NodeGene src = add.getSrc();
-						NodeGene dest = add.getDest();
+				if(child.checkConnectionEligible(con) && !orgInputSet.containsKey(con.getInnovNum()) && !orgOutputSet.containsKey(con.getInnovNum())) {
+					if(parents[1].searchForLocalEqual(con) != -1 || random.nextDouble() < 0.5) {
+						NodeGene src = (NodeGene)child.getGeneByLocalInnov(con.getSrc().getInnovNum(), true);
+						NodeGene dest = (NodeGene)child.getGeneByLocalInnov(con.getDest().getInnovNum(), true);
 						
-						int srcInnov = src.getInnovNum();
-						int destInnov = dest.getInnovNum();
-						
-						add.setSrc((NodeGene)child.getGeneByLocalInnov(srcInnov, true));
-						add.setDest((NodeGene)child.getGeneByLocalInnov(destInnov, true));
-						
-						
-						child.addGene(add);
+						child.addGene(child.arena.copy(con, src, dest));
 					}
 				}
 			} else {
@@ -453,20 +654,12 @@ public class GenomeNet{
 		
 		for(ConnectionGene con: parents[1].connections) {
 			if(child.connections.size() < maxAllow) {
-				if(child.checkConnectionEligible(con) && child.searchForLocalEqual(con) == -1 && !con.isContained(orgInputs) && !con.isContained(orgOutputs)) {
-					if(parents[0].searchForLocalEqual(con) != -1 || Math.random() < 0.5) {
-						ConnectionGene add = con;
-						
-						NodeGene src = add.getSrc();
-						NodeGene dest = add.getDest();
+				if(child.checkConnectionEligible(con) && child.searchForLocalEqual(con) == -1 && !orgInputSet.containsKey(con.getInnovNum()) && !orgOutputSet.containsKey(con.getInnovNum())) {
+					if(parents[0].searchForLocalEqual(con) != -1 || random.nextDouble() < 0.5) {
+						NodeGene src = (NodeGene)child.getGeneByLocalInnov(con.getSrc().getInnovNum(), true);
+						NodeGene dest = (NodeGene)child.getGeneByLocalInnov(con.getDest().getInnovNum(), true);
 						
-						int srcInnov = src.getInnovNum();
-						int destInnov = dest.getInnovNum();
-						
-						add.setSrc((NodeGene)child.getGeneByLocalInnov(srcInnov, true));
-						add.setDest((NodeGene)child.getGeneByLocalInnov(destInnov, true));
-						
-						child.addGene(add);
+						child.addGene(child.arena.copy(con, src, dest));
 					}
 				}
 			} else {
@@ -476,23 +669,24 @@ public class GenomeNet{
 		
 		for(ConnectionGene con: orgInputs) {
 			if(child.searchForLocalEqual(con) == -1) {
-				ConnectionGene add = con;
-				
 				boolean inHang;
 				
 				if(con.getSrc() == null) inHang = true;
 				else inHang = (child.searchForLocalEqual(con.getSrc()) == -1);
 				boolean outHang = false;
 				
+				NodeGene src = inHang ? null : child.nodes.get(child.getNodeReference(con.getSrc()));
+				NodeGene dest = child.nodes.get(child.getNodeReference(con.getDest()));
+				
+				ConnectionGene add = child.arena.copy(con, src, dest);
 				add.setHangingValues(inHang, outHang);
 				
 				if(!inHang) {
-					if(add.isContained(orgOutputs)) child.nodes.get(child.getNodeReference(add.getSrc())).initOutput(add);
-					else child.nodes.get(child.getNodeReference(add.getSrc())).addOutput(add);
+					if(orgOutputSet.containsKey(add.getInnovNum())) src.initOutput(add);
+					else src.addOutput(add);
 				}
-				else add.setSrc(null);
 				
-				child.nodes.get(child.getNodeReference(add.getDest())).initInput(add);
+				dest.initInput(add);
 				
 				if(!inHang) {
 					child.addGene(add);
@@ -504,22 +698,24 @@ public class GenomeNet{
 		
 		for(ConnectionGene con: orgOutputs) {
 			if(child.searchForLocalEqual(con) == -1) {
-				ConnectionGene add = con;
 				boolean inHang = false;
 				boolean outHang;
 				
 				if(con.getDest() == null) outHang = true;
 				else outHang = (child.searchForLocalEqual(con.getDest()) == -1);
 				
+				NodeGene src = child.nodes.get(child.getNodeReference(con.getSrc()));
+				NodeGene dest = outHang ? null : child.nodes.get(child.getNodeReference(con.getDest()));
+				
+				ConnectionGene add = child.arena.copy(con, src, dest);
 				add.setHangingValues(inHang, outHang);
 				
 				if(!outHang) {
-					if(con.isContained(orgInputs)) child.nodes.get(child.getNodeReference(add.getDest())).initInput(add);
-					else child.nodes.get(child.getNodeReference(add.getDest())).addInput(add);
+					if(orgInputSet.containsKey(con.getInnovNum())) dest.initInput(add);
+					else dest.addInput(add);
 				}
-				else add.setDest(null);
 				
-				child.nodes.get(child.getNodeReference(add.getSrc())).initOutput(add);
+				src.initOutput(add);
 				
 				if(!outHang) {
 					child.addGene(add);
@@ -530,7 +726,7 @@ public class GenomeNet{
 		}
 		
 		
-		child.updateAllGenes();
+		child.refreshTopology();
 		
 		return child;
 	}
@@ -581,28 +777,30 @@ public class GenomeNet{
 	 */
 	protected void mutate() {
 		
-		if(hangingConnections.size() > 0 && Math.random() < complexMutationRates[0]) mutateFindLink();
+		if(hangingConnections.size() > 0 && random.nextDouble() < complexMutationRates[0]) mutateFindLink();
 		
-		if(hangingConnections.size() > 0 && Math.random() < complexMutationRates[1]) mutateKillObsolete();
+		if(hangingConnections.size() > 0 && random.nextDouble() < complexMutationRates[1]) mutateKillObsolete();
 		
-		if(connections.size() < GenomeNet.MAX_CONNECTIONS && Math.random() < currBasicMutationRates[0]) {
+		if(connections.size() < GenomeNet.MAX_CONNECTIONS && random.nextDouble() < currBasicMutationRates[0]) {
 			mutateAddConnection();
 		}
 		
 		if(connections.size() > 0) {
-			if(Math.random() < currBasicMutationRates[1]) mutateAddNode();
-			if(Math.random() < currBasicMutationRates[2]) mutateChangeWeight();
-			if(Math.random() < currBasicMutationRates[3]) mutateAdjustWeight();
-			if(Math.random() < currBasicMutationRates[4]) mutateEnable();
+			if(random.nextDouble() < currBasicMutationRates[1]) mutateAddNode();
+			if(random.nextDouble() < currBasicMutationRates[2]) mutateChangeWeight();
+			if(random.nextDouble() < currBasicMutationRates[3]) mutateAdjustWeight();
+			if(random.nextDouble() < currBasicMutationRates[4]) mutateEnable();
 		}
 		
 		//if(connections.size() == 1) System.out.println(connections.get(0).getInnovNum());
-		sweepCopies();
-		updateAllGenes();
+		if(topologyDirty) {
+			sweepCopies();
+			refreshTopology();
+		}
 	}
 	
 	protected void trueMutate() {
-		int rand = (int)(Math.random() * 5);
+		int rand = random.nextInt(5);
 		
 		if(connections.size() > 0 && connections.size() < GenomeNet.MAX_CONNECTIONS) {
 			switch(rand) {
@@ -649,9 +847,10 @@ public class GenomeNet{
 			
 			if(n1.getX() != n2.getX()) {
 				if(n1.getX() > n2.getX()) {
-					newCon = new ConnectionGene(n2, n1, true);
+					newCon = arena.connection(n2, n1, true, random.nextDouble());
 					
 					if(this.searchForLocalEqual(newCon) != -1) {
+						arena.reclaim(newCon);
 						newCon = null;
 					} else {
 						
@@ -664,9 +863,10 @@ public class GenomeNet{
 						break;
 					}
 				} else {
-					newCon = new ConnectionGene(n1, n2, true);
+					newCon = arena.connection(n1, n2, true, random.nextDouble());
 					
 					if(this.searchForLocalEqual(newCon) != -1) {
+						arena.reclaim(newCon);
 						newCon = null;
 					} else {
 						
@@ -708,18 +908,14 @@ public class GenomeNet{
 		//System.out.println(conRef.getLoose());
 		double x = (conRef.getSrc().getX() + conRef.getDest().getX()) / 2;
 		
-		NodeGene newNode = new NodeGene(connections.get(conIndex), x);
-		
-		int geneSize = owner.LIST_OF_KNOWN_GENES.size();
+		NodeGene newNode = arena.hiddenNode(connections.get(conIndex).getInnovNum(), x);
 		
 		newNode.setInnovNum(searchForGlobalEqual(newNode));
 		
-		int newSize = owner.LIST_OF_KNOWN_GENES.size();
-		
 		//System.out.println(newNode.getInnovNum());
 		
-		ConnectionGene input = new ConnectionGene(conRef.getSrc(), newNode, true);
-		ConnectionGene output = new ConnectionGene(newNode, conRef.getDest(), true);
+		ConnectionGene input = arena.connection(conRef.getSrc(), newNode, true, random.nextDouble());
+		ConnectionGene output = arena.connection(newNode, conRef.getDest(), true, random.nextDouble());
 		
 		output.setInnov(searchForGlobalEqual(output));
 		input.setInnov(searchForGlobalEqual(input));
@@ -727,18 +923,11 @@ public class GenomeNet{
 		newNode.initInput(input);
 		newNode.initOutput(output);
 		
-		if(geneSize < newSize) {
-			
-			owner.LIST_OF_KNOWN_GENES.remove(geneSize);
-			owner.LIST_OF_KNOWN_GENES.add(newNode);
-			//System.out.println(((NodeGene)this.getGeneByGlobalInnov(searchForGlobalEqual(newNode), true)).getOrgInput());
-			//System.exit(0);
-		}
-		
 		//System.out.println(output.getInnovNum() == conRef.getInnovNum());
 		
 		
-		connections.remove(conIndex);
+		markTopologyChanged();
+		removeConnection(conIndex);
 		
 		
 		addGene(newNode);
@@ -753,19 +942,22 @@ public class GenomeNet{
 	private void mutateChangeWeight() {
 		int conIndex = getRandomConnectionIndex();
 		
-		connections.get(conIndex).setWeight(Math.random());
+		connections.get(conIndex).setWeight(random.nextDouble());
+		weightsDirty = true;
 	}
 	
 	private void mutateAdjustWeight() {
 		int conIndex = getRandomConnectionIndex();
 		
-		connections.get(conIndex).setWeight((connections.get(conIndex).getWeight()) + ((Math.random() - 0.5) * 0.5));
+		connections.get(conIndex).setWeight((connections.get(conIndex).getWeight()) + ((random.nextDouble() - 0.5) * 0.5));
+		weightsDirty = true;
 	}
 	
 	private void mutateEnable() {
 		int conIndex = getRandomConnectionIndex();
 		
 		connections.get(conIndex).setEnabled(!connections.get(conIndex).getEnabled());
+		invalidateNetwork();
 	}
 	
 	private void mutateFindLink() {
@@ -786,18 +978,22 @@ public class GenomeNet{
 		
 		if(link == null) return;
 		else {
+			markTopologyChanged();
+			
 			if(hanging.getInHang()) {
 				hanging.setSrc(link);
 				hanging.setHangingValues(false, false);
+				localGenes.add(hanging);
 				nodes.get(index).addOutput(hanging);
-				connections.add(hanging);
-				hangingConnections.remove(hangIndex);
+				appendConnection(hanging);
+				removeHanging(hangIndex);
 			} else {
 				hanging.setDest(link);
 				hanging.setHangingValues(false, false);
+				localGenes.add(hanging);
 				nodes.get(index).addInput(hanging);
-				connections.add(hanging);
-				hangingConnections.remove(hangIndex);
+				appendConnection(hanging);
+				removeHanging(hangIndex);
 			}
 		}
 	}
@@ -813,50 +1009,52 @@ public class GenomeNet{
 		
 		if(src == null) srcNull = true;
 		
+		markTopologyChanged();
+		
 		boolean killNode = false;
 		if(!srcNull) {
 			if(src.getOutputs().size() == 1) killNode = true;
-			hangingConnections.remove(index);
+			removeHanging(index);
 			
 			if(killNode) {
 				for(ConnectionGene con: src.getInputs()) {
 					if(getConnectionReference(con) != -1) {
 						if(con.getSrc().getOrgOutput() == null || !con.equals(con.getSrc().getOrgOutput())) {
-							connections.remove(getConnectionReference(con));
+							removeConnection(getConnectionReference(con));
 						} else {
 							ConnectionGene newCon = con;
 							newCon.setHangingValues(false, true);
-							hangingConnections.add(newCon);
-							connections.remove(getConnectionReference(con));
+							appendHanging(newCon);
+							removeConnection(getConnectionReference(con));
 						}
 					} else if(getHangingConnectionReference(con) != -1) {
-						hangingConnections.remove(getHangingConnectionReference(con));
+						removeHanging(getHangingConnectionReference(con));
 					}
 				}
 				
-				nodes.remove(getNodeReference(src));
+				removeNode(getNodeReference(src));
 			}
 		} else {
 			if(dest.getInputs().size() == 1) killNode = true;
-			hangingConnections.remove(index);
+			removeHanging(index);
 			
 			if(killNode) {
 				for(ConnectionGene con: dest.getOutputs()) {
 					if(getConnectionReference(con) != -1) {
 						if(con.getDest().getOrgInput() == null || !con.equals(con.getDest().getOrgInput())) {
-							connections.remove(getConnectionReference(con));
+							removeConnection(getConnectionReference(con));
 						} else {
 							ConnectionGene newCon = con;
 							newCon.setHangingValues(true, false);
-							hangingConnections.add(newCon);
-							connections.remove(getConnectionReference(con));
+							appendHanging(newCon);
+							removeConnection(getConnectionReference(con));
 						}
 					} else if(getHangingConnectionReference(con) != -1) {
-						hangingConnections.remove(getHangingConnectionReference(con));
+						removeHanging(getHangingConnectionReference(con));
 					}
 				}
 				
-				nodes.remove(getNodeReference(dest));
+				removeNode(getNodeReference(dest));
 			}
 		}
 	}
@@ -864,36 +1062,79 @@ public class GenomeNet{
 	private int getRandomNodeIndex() {
 		
 		if(nodes.size() == 0) return -1;
-		return (int)(Math.random() * nodes.size());
+		return random.nextInt(nodes.size());
 	}
 	
 	private int getRandomConnectionIndex() {
 		
 		if(connections.size() == 0) return -1;
-		return (int)(Math.random() * connections.size());
+		return random.nextInt(connections.size());
 	}
 	
 	private int getRandomHangingIndex() {
 		
 		if(hangingConnections.size() == 0) return -1;
-		return (int)(Math.random() * hangingConnections.size());
+		return random.nextInt(hangingConnections.size());
 	}
 	
 	private void sweepCopies() {
-		ArrayList<NodeGene> nCounted = new ArrayList<>();
-		ArrayList<ConnectionGene> cCounted = new ArrayList<>();
+		IntIntMap nCopies = new IntIntMap(nodes.size());
+		IntIntMap cCopies = new IntIntMap(connections.size() + hangingConnections.size());
 		
+		//Every Gene after the first one with the same Innovation Number is a copy that has to go
 		for(Gene n: allGenes) {
-			if(n instanceof NodeGene) {
-				if(((NodeGene)n).isContained(nCounted)) nodes.remove(getNodeReference((NodeGene)n));
-				else nCounted.add((NodeGene)n);
-			}
+			IntIntMap copies = (n instanceof NodeGene) ? nCopies : cCopies;
+			copies.put(n.getInnovNum(), copies.get(n.getInnovNum(), -1) + 1);
+		}
+		
+		boolean removed = removeFirstCopies(nodes, nCopies);
+		removed |= removeFirstCopies(connections, cCopies);
+		
+		if(removed) positionsStale = true;
+	}
+	
+	/**
+	 * Removes the first occurrences of every Gene with copies from a list in a single pass, the same Genes that
+	 * removing them one at a time by their first position would remove
+	 * @param list List to remove the copies from
+	 * @param copies Number of Genes to remove for each Innovation Number, used up by this method
+	 * @return Returns true if any Gene was removed
+	 */
+	private static <T extends Gene> boolean removeFirstCopies(ArrayList<T> list, IntIntMap copies) {
+		int kept = 0;
+		
+		for(int x = 0; x < list.size(); x++) {
+			T gene = list.get(x);
 			
-			if(n instanceof ConnectionGene) {
-				if(((ConnectionGene)n).isContained(cCounted)) connections.remove(getConnectionReference((ConnectionGene)n));
-				else cCounted.add((ConnectionGene)n);
+			int extra = copies.get(gene.getInnovNum(), 0);
+			if(extra > 0) {
+				copies.put(gene.getInnovNum(), extra - 1);
+				continue;
 			}
+			
+			list.set(kept++, gene);
 		}
+		
+		if(kept == list.size()) return false;
+		
+		list.subList(kept, list.size()).clear();
+		return true;
+	}
+	
+	/**
+	 * Getter for the size of the input layer
+	 * @return Number of inputs the Genome expects
+	 */
+	public int getInputSize() {
+		return this.inputs;
+	}
+	
+	/**
+	 * Getter for the size of the output layer
+	 * @return Number of outputs the Genome calculates
+	 */
+	public int getOutputSize() {
+		return this.outputs;
 	}
 	
 	/**
@@ -902,6 +1143,7 @@ public class GenomeNet{
 	 */
 	public void setFitness(double fitness) {
 		this.fitness = fitness;
+		owner.invalidateRanking();
 	}
 	
 	/**
@@ -910,6 +1152,7 @@ public class GenomeNet{
 	 */
 	public void increaseFitness(double increase) {
 		this.fitness += increase;
+		owner.invalidateRanking();
 	}
 	
 	/**
@@ -947,38 +1190,25 @@ public class GenomeNet{
 		else this.complexMutationRates = complexMutationRates;
 	}
 	
-	protected ArrayList<Gene> getGeneticCode() {
-		
-		ArrayList<Gene> geneCopies = new ArrayList<>();
-		
-		for(int x = 0; x < allGenes.size(); x++) {
-			if(allGenes.get(x) instanceof NodeGene) {
-				NodeGene copy = (NodeGene)allGenes.get(x);
-				NodeGene add;
-				if(copy.getHidden()) {
-					add = new NodeGene(copy.getSplit(), copy.getX());
-					add.setInnovNum(copy.getInnovNum());
-					
-					add.initInput(copy.getOrgInput());
-					add.initOutput(copy.getOrgOutput());
-					
-				} else {
-					add = new NodeGene(copy.getInnovNum(), copy.getX());
-				}
-				
-				geneCopies.add(add);
-				
-			} else if(allGenes.get(x) instanceof ConnectionGene) {
-				ConnectionGene copy = (ConnectionGene)allGenes.get(x);
-				ConnectionGene add = new ConnectionGene(copy.getSrc(), copy.getDest(), copy.getEnabled());
-				add.setInnov(copy.getInnovNum());
-				add.setWeight(copy.getWeight());
-				add.setHangingValues(copy.getInHang(), copy.getOutHang());
-				
-				geneCopies.add(add);
-			}
+	/**
+	 * Unpacks a packed genetic code into a Genome
+	 * @param packed Packed genetic code
+	 * @param generation Generation of the Genome (0 keeps the initial mutation rates)
+	 * @param random Random stream of the Genome
+	 * @param retired Retired Genome to reuse (null to create a new Genome)
+	 * @return A Genome holding the unpacked genetic code, sharing no Genes with any other Genome
+	 */
+	protected GenomeNet unpack(PackedGenome packed, int generation, SplittableRandom random, GenomeNet retired) {
+		if(retired == null) {
+			GenomeNet genome = new GenomeNet(this.inputs, this.outputs, packed.decode(new GeneArena()), owner, random);
+			if(generation != 0) genome.setMutationRates(generation);
+			
+			return genome;
 		}
 		
-		return geneCopies;
+		retired.recycle(generation, random);
+		retired.loadGenes(packed.decode(retired.arena));
+		
+		return retired;
 	}
-}
\ No newline at end of file
+}
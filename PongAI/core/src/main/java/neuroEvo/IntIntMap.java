@@ -0,0 +1,196 @@
+package neuroEvo;
+
+import java.util.Arrays;
+
+/**
+ * {@summary Open addressing hash map from int keys to int values}<br>
+ * Used by the Genomes to look up Genes by their Innovation Numbers without boxing every key and value
+ */
+public class IntIntMap {
+	
+	private int[] keys;
+	private int[] values;
+	private boolean[] used;
+	
+	private int size;
+	private int mask;
+	
+	protected IntIntMap() {
+		this(16);
+	}
+	
+	/**
+	 * @param capacity Expected number of keys
+	 */
+	protected IntIntMap(int capacity) {
+		int tableSize = 16;
+		while(tableSize < capacity * 2) tableSize <<= 1;
+		
+		allocate(tableSize);
+	}
+	
+	private void allocate(int tableSize) {
+		keys = new int[tableSize];
+		values = new int[tableSize];
+		used = new boolean[tableSize];
+		mask = tableSize - 1;
+		size = 0;
+	}
+	
+	private int slot(int key) {
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+	
+	/**
+	 * Gets the value of a key
+	 * @param key Key to search for
+	 * @param missing Value to return if the key is not in the map
+	 * @return The value of the key, or the missing value
+	 */
+	protected int get(int key, int missing) {
+		int x = slot(key);
+		
+		while(used[x]) {
+			if(keys[x] == key) return values[x];
+			x = (x + 1) & mask;
+		}
+		
+		return missing;
+	}
+	
+	/**
+	 * Determines whether the map contains a key
+	 * @param key Key to search for
+	 * @return Returns true if the key is in the map
+	 */
+	protected boolean containsKey(int key) {
+		int x = slot(key);
+		
+		while(used[x]) {
+			if(keys[x] == key) return true;
+			x = (x + 1) & mask;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Adds a key to the map, unless the map already contains it
+	 * @param key Key to add
+	 * @param value Value to store with the key
+	 * @return Returns true if the key was added
+	 */
+	protected boolean putIfAbsent(int key, int value) {
+		int x = slot(key);
+		
+		while(used[x]) {
+			if(keys[x] == key) return false;
+			x = (x + 1) & mask;
+		}
+		
+		used[x] = true;
+		keys[x] = key;
+		values[x] = value;
+		
+		if(++size * 2 > keys.length) grow();
+		
+		return true;
+	}
+	
+	/**
+	 * Sets the value of a key, adding the key if the map does not contain it yet
+	 * @param key Key to set
+	 * @param value Value to store with the key
+	 */
+	protected void put(int key, int value) {
+		int x = slot(key);
+		
+		while(used[x]) {
+			if(keys[x] == key) {
+				values[x] = value;
+				return;
+			}
+			x = (x + 1) & mask;
+		}
+		
+		used[x] = true;
+		keys[x] = key;
+		values[x] = value;
+		
+		if(++size * 2 > keys.length) grow();
+	}
+	
+	/**
+	 * Removes a key from the map, if the map contains it
+	 * @param key Key to remove
+	 */
+	protected void remove(int key) {
+		int x = slot(key);
+		
+		while(used[x] && keys[x] != key) x = (x + 1) & mask;
+		if(!used[x]) return;
+		
+		used[x] = false;
+		size--;
+		
+		//Moves later keys of the same probe run into the emptied slot, so no search stops there too early
+		int hole = x;
+		x = (x + 1) & mask;
+		
+		while(used[x]) {
+			int home = slot(keys[x]);
+			
+			if(((x - home) & mask) >= ((x - hole) & mask)) {
+				keys[hole] = keys[x];
+				values[hole] = values[x];
+				used[hole] = true;
+				used[x] = false;
+				
+				hole = x;
+			}
+			
+			x = (x + 1) & mask;
+		}
+	}
+	
+	/**
+	 * Lowers every value above a threshold by one, which keeps list positions right after an element was removed
+	 * @param threshold Values above this one are lowered
+	 */
+	protected void decrementAbove(int threshold) {
+		for(int x = 0; x < keys.length; x++) {
+			if(used[x] && values[x] > threshold) values[x]--;
+		}
+	}
+	
+	private void grow() {
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		boolean[] oldUsed = used;
+		
+		allocate(oldKeys.length * 2);
+		
+		for(int x = 0; x < oldKeys.length; x++) {
+			if(oldUsed[x]) putIfAbsent(oldKeys[x], oldValues[x]);
+		}
+	}
+	
+	/**
+	 * Getter for the number of keys
+	 * @return Number of keys in the map
+	 */
+	protected int size() {
+		return size;
+	}
+	
+	/**
+	 * Removes every key from the map, keeping its capacity
+	 */
+	protected void clear() {
+		if(size == 0) return;
+		
+		Arrays.fill(used, false);
+		size = 0;
+	}
+}
@@ -22,7 +22,12 @@ public class NodeGene extends Gene{
 	protected boolean hidden;
 	private ConnectionGene orgInput;
 	private ConnectionGene orgOutput;
-	private ConnectionGene split;
+	
+	/**
+	 * Innovation Number of the Connection split to create this Node (-1 for Input and Output Nodes)<br>
+	 * Only the number is kept, so the split Connection itself can be reused once its Genome is retired
+	 */
+	private int splitInnov = -1;
 	
 	private ArrayList<ConnectionGene> inputs;
 	private ArrayList<ConnectionGene> outputs;
@@ -55,11 +60,11 @@ public class NodeGene extends Gene{
 	 * @param x Important for maintaining a proper linear flow (Input Node x = 0.0, Output Node x = 1.0)<br><br>
 	 * 
 	 * Hidden Nodes are created by splitting a Connection in half, and placing a Node with an input and output connection its place, maintaining the original path.<br>
-	 * The originally split ConnectionGene is saved in the new Node, and is used to determine equivalence among 2 Nodes
+	 * The Innovation Number of the originally split ConnectionGene is saved in the new Node, and is used to determine equivalence among 2 Nodes
 	 */
 	protected NodeGene(ConnectionGene split, double x) {
 		
-		this.split = split;
+		this.splitInnov = split.getInnovNum();
 		hidden = true;
 		
 		inputs = new ArrayList<>();
@@ -70,6 +75,38 @@ public class NodeGene extends Gene{
 		this.innovNum = -1;
 	}
 	
+	/**
+	 * Creates a copy of this Node without any of its Connections
+	 * @return Returns a new Node with the same Innovation Number, position and split Connection as this one
+	 */
+	protected NodeGene copy() {
+		NodeGene copy = new NodeGene(this.innovNum, this.x);
+		copy.recycle(this.innovNum, this.splitInnov, this.x);
+		
+		return copy;
+	}
+	
+	/**
+	 * Turns this Node back into a freshly created Node, used when a GeneArena hands it out again
+	 * @param innovNum Innovation Number of the Node
+	 * @param splitInnov Innovation Number of the split Connection (-1 for Input and Output Nodes)
+	 * @param x Position of the Node
+	 */
+	protected void recycle(int innovNum, int splitInnov, double x) {
+		setInnovNum(innovNum);
+		
+		this.splitInnov = splitInnov;
+		this.hidden = splitInnov != -1;
+		this.x = x;
+		this.value = 0.0;
+		
+		orgInput = null;
+		orgOutput = null;
+		
+		inputs.clear();
+		outputs.clear();
+	}
+	
 	/**
 	 * Empties this Node's list of input and output ConnectionGenes
 	 * @param resetOrg If this is true, the Node's Original Connections (only exists on Hidden Nodes) will also be reset
@@ -78,8 +115,8 @@ public class NodeGene extends Gene{
 	 */
 	protected void reset(boolean resetOrg) {
 		
-		inputs = new ArrayList<>();
-		outputs = new ArrayList<>();
+		inputs.clear();
+		outputs.clear();
 		
 		if(resetOrg) {
 			this.orgInput = null;
@@ -128,12 +165,12 @@ public class NodeGene extends Gene{
 	}
 	
 	/**
-	 * Getter for Split Connection
-	 * @return Original Split Connection<br><br>
+	 * Getter for the Split Connection's Innovation Number
+	 * @return Innovation Number of the Original Split Connection (-1 for Input and Output Nodes)<br><br>
 	 * 
 	 */
-	protected ConnectionGene getSplit() {
-		return this.split;
+	protected int getSplitInnov() {
+		return this.splitInnov;
 	}
 	
 	@Override
@@ -146,8 +183,8 @@ public class NodeGene extends Gene{
 	 */
 	protected boolean known(Gene other) {
 		NodeGene n = (NodeGene)other;
-		if(this.split == null || n.getSplit() == null) return this.innovNum == n.getInnovNum();
-		if(this.split.equals(n.getSplit())) return true;
+		if(this.splitInnov == -1 || n.getSplitInnov() == -1) return this.innovNum == n.getInnovNum();
+		if(this.splitInnov == n.getSplitInnov()) return true;
 		
 		return false;
 	}
@@ -209,7 +246,7 @@ public class NodeGene extends Gene{
 	 * Any Hidden Node can become a Bias Node if its one and only input connection is a loose connection
 	 * @see ConnectionGene for info on loose and hanging Connections
 	 */
-	private boolean checkBias() {
+	protected boolean checkBias() {
 		if(hidden) {
 			if(inputs.size() == 1 && (orgInput == null || orgInput.getLoose())) return true;
 		} else return false;
@@ -235,14 +272,6 @@ public class NodeGene extends Gene{
 		return this.x;
 	}
 	
-	/**
-	 * Non-Linear function to turn the Node value into a fractional number between -1 and 1
-	 */
-	protected void activate() {
-		//this.value = 1 / (1 + Math.exp(-1 * value));
-		this.value = Math.tanh(value);
-	}
-	
 	/**
 	 * Getter for the Input Connections
 	 * @return Returns the Input Connections
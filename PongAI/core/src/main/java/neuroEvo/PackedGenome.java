@@ -0,0 +1,417 @@
+package neuroEvo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * {@summary This class contains the genetic code of a Genome packed into primitive arrays}<br>
+ * Nodes and Connections are stored as parallel arrays sorted by Innovation Number, with Connections referring to their
+ * Source and Destination Nodes by Innovation Number instead of by reference. A packed Genome can be unpacked into
+ * several Genomes, and crossover walks both parents' sorted arrays side by side instead of searching their Gene
+ * lists<br><br>
+ *
+ * Genes that a Genome still references but no longer keeps in its lists (such as the Original Connection of a Hidden
+ * Node that was removed) are stored as well, but are not marked as members of the Genome
+ */
+public class PackedGenome {
+	
+	protected static final byte MEMBER = 1;
+	protected static final byte ENABLED = 2;
+	protected static final byte IN_HANG = 4;
+	protected static final byte OUT_HANG = 8;
+	
+	private int[] nodeInnov;
+	private double[] nodeX;
+	private int[] nodeSplit;
+	private int[] nodeOrgInput;
+	private int[] nodeOrgOutput;
+	private byte[] nodeFlags;
+	
+	private int[] conInnov;
+	private int[] conSrc;
+	private int[] conDest;
+	private double[] conWeight;
+	private byte[] conFlags;
+	
+	private PackedGenome(int nodes, int connections) {
+		nodeInnov = new int[nodes];
+		nodeX = new double[nodes];
+		nodeSplit = new int[nodes];
+		nodeOrgInput = new int[nodes];
+		nodeOrgOutput = new int[nodes];
+		nodeFlags = new byte[nodes];
+		
+		conInnov = new int[connections];
+		conSrc = new int[connections];
+		conDest = new int[connections];
+		conWeight = new double[connections];
+		conFlags = new byte[connections];
+	}
+	
+	/**
+	 * Packs the genetic code of a Genome
+	 * @param genome Genome to pack
+	 * @return The packed genetic code<br><br>
+	 *
+	 * Genes are resolved by their first occurrence, the same way the Genome resolves them by Innovation Number
+	 */
+	protected static PackedGenome encode(GenomeNet genome) {
+		genome.refreshTopology();
+		
+		ArrayList<NodeGene> nodes = new ArrayList<>();
+		ArrayList<ConnectionGene> connections = new ArrayList<>();
+		IntIntMap nodeSeen = new IntIntMap(genome.nodes.size());
+		IntIntMap conSeen = new IntIntMap(genome.allGenes.size());
+		
+		for(NodeGene n: genome.nodes) {
+			if(nodeSeen.putIfAbsent(n.getInnovNum(), nodes.size())) nodes.add(n);
+		}
+		
+		for(Gene n: genome.allGenes) {
+			if(n instanceof ConnectionGene && conSeen.putIfAbsent(n.getInnovNum(), connections.size())) connections.add((ConnectionGene)n);
+		}
+		
+		int memberNodes = nodes.size();
+		int memberConnections = connections.size();
+		
+		for(int x = 0; x < memberNodes; x++) {
+			ConnectionGene orgInput = nodes.get(x).getOrgInput();
+			ConnectionGene orgOutput = nodes.get(x).getOrgOutput();
+			
+			if(orgInput != null && conSeen.putIfAbsent(orgInput.getInnovNum(), connections.size())) connections.add(orgInput);
+			if(orgOutput != null && conSeen.putIfAbsent(orgOutput.getInnovNum(), connections.size())) connections.add(orgOutput);
+		}
+		
+		for(ConnectionGene con: connections) {
+			if(con.getSrc() != null && nodeSeen.putIfAbsent(con.getSrc().getInnovNum(), nodes.size())) nodes.add(con.getSrc());
+			if(con.getDest() != null && nodeSeen.putIfAbsent(con.getDest().getInnovNum(), nodes.size())) nodes.add(con.getDest());
+		}
+		
+		PackedGenome packed = new PackedGenome(nodes.size(), connections.size());
+		
+		int[] order = sortedOrder(innovationsOf(nodes), nodes.size());
+		for(int x = 0; x < order.length; x++) {
+			NodeGene n = nodes.get(order[x]);
+			
+			packed.nodeInnov[x] = n.getInnovNum();
+			packed.nodeX[x] = n.getX();
+			packed.nodeSplit[x] = n.getSplitInnov();
+			packed.nodeOrgInput[x] = n.getOrgInput() == null ? -1 : n.getOrgInput().getInnovNum();
+			packed.nodeOrgOutput[x] = n.getOrgOutput() == null ? -1 : n.getOrgOutput().getInnovNum();
+			packed.nodeFlags[x] = order[x] < memberNodes ? MEMBER : 0;
+		}
+		
+		order = sortedOrder(innovationsOf(connections), connections.size());
+		for(int x = 0; x < order.length; x++) {
+			ConnectionGene con = connections.get(order[x]);
+			
+			packed.conInnov[x] = con.getInnovNum();
+			packed.conSrc[x] = con.getSrc() == null ? -1 : con.getSrc().getInnovNum();
+			packed.conDest[x] = con.getDest() == null ? -1 : con.getDest().getInnovNum();
+			packed.conWeight[x] = con.getWeight();
+			packed.conFlags[x] = connectionFlags(order[x] < memberConnections, con.getRawEnabled(), con.getInHang(), con.getOutHang());
+		}
+		
+		return packed;
+	}
+	
+	/**
+	 * Unpacks the genetic code into Gene objects
+	 * @param arena Arena the Genes are taken from
+	 * @return The Genes that are members of the Genome, Nodes first and each group sorted by Innovation Number
+	 */
+	protected ArrayList<Gene> decode(GeneArena arena) {
+		NodeGene[] nodes = new NodeGene[nodeInnov.length];
+		ConnectionGene[] connections = new ConnectionGene[conInnov.length];
+		
+		for(int x = 0; x < nodes.length; x++) {
+			nodes[x] = arena.node(nodeInnov[x], nodeSplit[x], nodeX[x]);
+		}
+		
+		for(int x = 0; x < connections.length; x++) {
+			NodeGene src = conSrc[x] == -1 ? null : nodes[Arrays.binarySearch(nodeInnov, conSrc[x])];
+			NodeGene dest = conDest[x] == -1 ? null : nodes[Arrays.binarySearch(nodeInnov, conDest[x])];
+			
+			connections[x] = arena.connection(src, dest, (conFlags[x] & ENABLED) != 0, conWeight[x]);
+			connections[x].setInnov(conInnov[x]);
+			connections[x].setHangingValues((conFlags[x] & IN_HANG) != 0, (conFlags[x] & OUT_HANG) != 0);
+		}
+		
+		ArrayList<Gene> genes = new ArrayList<>(nodes.length + connections.length);
+		
+		for(int x = 0; x < nodes.length; x++) {
+			if(nodes[x].getHidden()) {
+				if(nodeOrgInput[x] != -1) nodes[x].initInput(connections[Arrays.binarySearch(conInnov, nodeOrgInput[x])]);
+				if(nodeOrgOutput[x] != -1) nodes[x].initOutput(connections[Arrays.binarySearch(conInnov, nodeOrgOutput[x])]);
+			}
+			
+			if((nodeFlags[x] & MEMBER) != 0) genes.add(nodes[x]);
+		}
+		
+		for(int x = 0; x < connections.length; x++) {
+			if((conFlags[x] & MEMBER) != 0) genes.add(connections[x]);
+		}
+		
+		return genes;
+	}
+	
+	/**
+	 * Breeding method which mixes the packed genetic code of 2 parents, following the same rules as the crossover of
+	 * the Genome class
+	 * @param p1 First parent, whose version of a Gene is kept when both parents have it
+	 * @param p2 Second parent
+	 * @param random Random stream used for the Gene mixing
+	 * @return The packed genetic code of the child<br><br>
+	 *
+	 * Genes that both parents have are always inherited, and Genes only one parent has are inherited half of the time.
+	 * Connections are only inherited if both of their Nodes were, except for the Original Connections of inherited
+	 * Hidden Nodes, which are always kept and left hanging if the Node on their other end is missing
+	 */
+	protected static PackedGenome crossover(PackedGenome p1, PackedGenome p2, SplittableRandom random) {
+		PackedGenome[] parents = {p1, p2};
+		PackedGenome child = new PackedGenome(p1.nodeInnov.length + p2.nodeInnov.length, p1.conInnov.length + p2.conInnov.length);
+		
+		int nodeCount = 0;
+		
+		//Original Connections of the inherited Hidden Nodes, with the parent and index they are taken from
+		IntIntMap orgInputSet = new IntIntMap();
+		IntIntMap orgOutputSet = new IntIntMap();
+		int[] orgInputs = new int[child.nodeInnov.length];
+		int[] orgOutputs = new int[child.nodeInnov.length];
+		int orgInputCount = 0;
+		int orgOutputCount = 0;
+		
+		int a = p1.nextNodeMember(0);
+		int b = p2.nextNodeMember(0);
+		
+		while(a < p1.nodeInnov.length || b < p2.nodeInnov.length) {
+			int parent;
+			int index;
+			boolean inherit;
+			
+			if(a < p1.nodeInnov.length && b < p2.nodeInnov.length && p1.nodeInnov[a] == p2.nodeInnov[b]) {
+				parent = 0;
+				index = a;
+				inherit = true;
+				
+				a = p1.nextNodeMember(a + 1);
+				b = p2.nextNodeMember(b + 1);
+			} else if(b >= p2.nodeInnov.length || (a < p1.nodeInnov.length && p1.nodeInnov[a] < p2.nodeInnov[b])) {
+				parent = 0;
+				index = a;
+				inherit = random.nextDouble() < 0.5;
+				
+				a = p1.nextNodeMember(a + 1);
+			} else {
+				parent = 1;
+				index = b;
+				inherit = random.nextDouble() < 0.5;
+				
+				b = p2.nextNodeMember(b + 1);
+			}
+			
+			if(!inherit) continue;
+			
+			PackedGenome from = parents[parent];
+			
+			child.nodeInnov[nodeCount] = from.nodeInnov[index];
+			child.nodeX[nodeCount] = from.nodeX[index];
+			child.nodeSplit[nodeCount] = from.nodeSplit[index];
+			child.nodeOrgInput[nodeCount] = from.nodeOrgInput[index];
+			child.nodeOrgOutput[nodeCount] = from.nodeOrgOutput[index];
+			child.nodeFlags[nodeCount] = MEMBER;
+			nodeCount++;
+			
+			int orgInput = from.findConnection(from.nodeOrgInput[index]);
+			int orgOutput = from.findConnection(from.nodeOrgOutput[index]);
+			
+			if(orgInput != -1 && orgInputSet.putIfAbsent(from.conInnov[orgInput], orgInputCount)) orgInputs[orgInputCount++] = orgInput * 2 + parent;
+			if(orgOutput != -1 && orgOutputSet.putIfAbsent(from.conInnov[orgOutput], orgOutputCount)) orgOutputs[orgOutputCount++] = orgOutput * 2 + parent;
+		}
+		
+		int conCount = 0;
+		int maxAllow = GenomeNet.MAX_CONNECTIONS - (orgInputCount + orgOutputCount);
+		
+		a = p1.nextConnectionMember(0);
+		b = p2.nextConnectionMember(0);
+		
+		while((a < p1.conInnov.length || b < p2.conInnov.length) && conCount < maxAllow) {
+			int parent;
+			int index;
+			boolean matching;
+			
+			if(a < p1.conInnov.length && b < p2.conInnov.length && p1.conInnov[a] == p2.conInnov[b]) {
+				parent = 0;
+				index = a;
+				matching = true;
+				
+				a = p1.nextConnectionMember(a + 1);
+				b = p2.nextConnectionMember(b + 1);
+			} else if(b >= p2.conInnov.length || (a < p1.conInnov.length && p1.conInnov[a] < p2.conInnov[b])) {
+				parent = 0;
+				index = a;
+				matching = false;
+				
+				a = p1.nextConnectionMember(a + 1);
+			} else {
+				parent = 1;
+				index = b;
+				matching = false;
+				
+				b = p2.nextConnectionMember(b + 1);
+			}
+			
+			PackedGenome from = parents[parent];
+			
+			if((from.conFlags[index] & (IN_HANG | OUT_HANG)) != 0) continue;
+			if(!child.hasNode(from.conSrc[index], nodeCount) || !child.hasNode(from.conDest[index], nodeCount)) continue;
+			if(orgInputSet.containsKey(from.conInnov[index]) || orgOutputSet.containsKey(from.conInnov[index])) continue;
+			
+			if(matching || random.nextDouble() < 0.5) {
+				child.copyConnection(conCount++, from, index, from.conSrc[index], from.conDest[index], false, false);
+			}
+		}
+		
+		for(int x = 0; x < orgInputCount; x++) {
+			PackedGenome from = parents[orgInputs[x] & 1];
+			int index = orgInputs[x] >> 1;
+			
+			boolean inHang = !child.hasNode(from.conSrc[index], nodeCount);
+			
+			child.copyConnection(conCount++, from, index, inHang ? -1 : from.conSrc[index], from.conDest[index], inHang, false);
+		}
+		
+		for(int x = 0; x < orgOutputCount; x++) {
+			PackedGenome from = parents[orgOutputs[x] & 1];
+			int index = orgOutputs[x] >> 1;
+			
+			if(orgInputSet.containsKey(from.conInnov[index])) continue;
+			
+			boolean outHang = !child.hasNode(from.conDest[index], nodeCount);
+			
+			child.copyConnection(conCount++, from, index, from.conSrc[index], outHang ? -1 : from.conDest[index], false, outHang);
+		}
+		
+		child.truncate(nodeCount, conCount);
+		
+		return child;
+	}
+	
+	private int nextNodeMember(int index) {
+		while(index < nodeInnov.length && (nodeFlags[index] & MEMBER) == 0) index++;
+		return index;
+	}
+	
+	private int nextConnectionMember(int index) {
+		while(index < conInnov.length && (conFlags[index] & MEMBER) == 0) index++;
+		return index;
+	}
+	
+	private int findConnection(int innovNum) {
+		if(innovNum == -1) return -1;
+		
+		int index = Arrays.binarySearch(conInnov, innovNum);
+		return index < 0 ? -1 : index;
+	}
+	
+	/**
+	 * Determines whether a Node has already been added to a child that is being bred
+	 * @param innovNum Innovation Number of the Node (-1 is never found)
+	 * @param nodeCount Number of Nodes added so far (they are added in ascending order)
+	 * @return Returns true if the Node was added
+	 */
+	private boolean hasNode(int innovNum, int nodeCount) {
+		if(innovNum == -1) return false;
+		
+		return Arrays.binarySearch(nodeInnov, 0, nodeCount, innovNum) >= 0;
+	}
+	
+	private void copyConnection(int to, PackedGenome from, int index, int src, int dest, boolean inHang, boolean outHang) {
+		conInnov[to] = from.conInnov[index];
+		conSrc[to] = src;
+		conDest[to] = dest;
+		conWeight[to] = from.conWeight[index];
+		conFlags[to] = connectionFlags(true, (from.conFlags[index] & ENABLED) != 0, inHang, outHang);
+	}
+	
+	/**
+	 * Shrinks the arrays of a child to the Genes it inherited, and sorts its Connections by Innovation Number
+	 * @param nodes Number of inherited Nodes (already sorted)
+	 * @param connections Number of inherited Connections
+	 */
+	private void truncate(int nodes, int connections) {
+		nodeInnov = Arrays.copyOf(nodeInnov, nodes);
+		nodeX = Arrays.copyOf(nodeX, nodes);
+		nodeSplit = Arrays.copyOf(nodeSplit, nodes);
+		nodeOrgInput = Arrays.copyOf(nodeOrgInput, nodes);
+		nodeOrgOutput = Arrays.copyOf(nodeOrgOutput, nodes);
+		nodeFlags = Arrays.copyOf(nodeFlags, nodes);
+		
+		int[] order = sortedOrder(conInnov, connections);
+		
+		int[] innov = new int[connections];
+		int[] src = new int[connections];
+		int[] dest = new int[connections];
+		double[] weight = new double[connections];
+		byte[] flags = new byte[connections];
+		
+		for(int x = 0; x < connections; x++) {
+			innov[x] = conInnov[order[x]];
+			src[x] = conSrc[order[x]];
+			dest[x] = conDest[order[x]];
+			weight[x] = conWeight[order[x]];
+			flags[x] = conFlags[order[x]];
+		}
+		
+		conInnov = innov;
+		conSrc = src;
+		conDest = dest;
+		conWeight = weight;
+		conFlags = flags;
+	}
+	
+	private static byte connectionFlags(boolean member, boolean enabled, boolean inHang, boolean outHang) {
+		int flags = 0;
+		
+		if(member) flags |= MEMBER;
+		if(enabled) flags |= ENABLED;
+		if(inHang) flags |= IN_HANG;
+		if(outHang) flags |= OUT_HANG;
+		
+		return (byte)flags;
+	}
+	
+	private static int[] innovationsOf(ArrayList<? extends Gene> genes) {
+		int[] innov = new int[genes.size()];
+		
+		for(int x = 0; x < innov.length; x++) {
+			innov[x] = genes.get(x).getInnovNum();
+		}
+		
+		return innov;
+	}
+	
+	/**
+	 * Sorts the first entries of an Innovation Number array without boxing
+	 * @param innov Innovation Numbers to sort by
+	 * @param count Number of entries to sort
+	 * @return Indices of the entries in ascending Innovation Number order (ties keep their original order)
+	 */
+	private static int[] sortedOrder(int[] innov, int count) {
+		long[] keys = new long[count];
+		
+		for(int x = 0; x < count; x++) {
+			keys[x] = ((long)innov[x] << 32) | x;
+		}
+		
+		Arrays.sort(keys);
+		
+		int[] order = new int[count];
+		for(int x = 0; x < count; x++) {
+			order[x] = (int)keys[x];
+		}
+		
+		return order;
+	}
+}
@@ -1,6 +1,9 @@
 package neuroEvo;
 
 import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * {@summary This class contains the list of Genomes to comprise the "Population"}<br>
@@ -15,13 +18,20 @@ import java.util.ArrayList;
 public class Population {
 	
 	/**
-	 * Used as a global counter for all genes that have existed in the population's history
+	 * Index of all genes that have existed in the population's history, also used as the global counter for new Node innovation numbers
 	 */
-	protected ArrayList<Gene> LIST_OF_KNOWN_GENES;
+	protected GeneIndex KNOWN_GENES;
 	
 	
 	private int size;
 	private GenomeNet[] population;
+	
+	/**
+	 * Genomes replaced by the last breed, which are reused for the children of the next breed<br>
+	 * Keeping them for one generation means the Genomes of the previous generation stay intact until the Client has
+	 * moved on to the current one
+	 */
+	private GenomeNet[] retired;
 	private final double breedPool = 0.18;
 	private int generation;
 	private boolean top2;
@@ -29,6 +39,53 @@ public class Population {
 	private int inputs;
 	private int outputs;
 	
+	/**
+	 * Populations smaller than this are always calculated on the calling thread
+	 */
+	private static final int PARALLEL_THRESHOLD = 64;
+	
+	/**
+	 * Number of batch tasks created for each worker thread, so faster workers can pick up more of the population
+	 */
+	private static final int TASKS_PER_THREAD = 4;
+	
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private ForkJoinPool pool;
+	private boolean parallelBreeding = false;
+	private boolean packedBreeding = false;
+	
+	private Activation activation = Activation.EXACT;
+	private boolean singlePrecision = false;
+	
+	/**
+	 * Master random stream, every Genome's own stream is split from it in index order
+	 */
+	private SplittableRandom random;
+	
+	/**
+	 * Genome indices ordered by fitness (highest first, ties broken by the lower index)<br>
+	 * Only the first rankedCount entries are guaranteed to be in order
+	 */
+	private int[] ranking;
+	private double[] rankFitness;
+	private int rankedCount = 0;
+	
+	/**
+	 * Ranges at or below this size are sorted with an insertion sort
+	 */
+	private static final int INSERTION_SORT_SIZE = 16;
+	
+	private BatchCalculation batchRoot;
+	private double[][] batchInputs;
+	private double[][] batchOutputs;
+	
+	private GenomeNet[] breedChildren;
+	private GenomeNet[] breedFirstParents;
+	private GenomeNet[] breedSecondParents;
+	private SplittableRandom[] breedStreams;
+	private PackedGenome[] breedFirstPacked;
+	private PackedGenome[] breedSecondPacked;
+	
 	/**
 	 * 
 	 * @param inputs The size of the input layer
@@ -37,10 +94,28 @@ public class Population {
 	 * @param top2 If true, breeding process will only consider the top 2 performing Genomes as parents
 	 */
 	public Population(int inputs, int outputs, int size, boolean top2) {
+		this(inputs, outputs, size, top2, new SplittableRandom());
+	}
+	
+	/**
+	 * 
+	 * @param inputs The size of the input layer
+	 * @param outputs The size of the output layer
+	 * @param size How many Genomes to create
+	 * @param top2 If true, breeding process will only consider the top 2 performing Genomes as parents
+	 * @param seed Seed for the random streams, a Population created with the same seed and given the same fitness
+	 * values evolves the same way whether it breeds serially or in parallel
+	 */
+	public Population(int inputs, int outputs, int size, boolean top2, long seed) {
+		this(inputs, outputs, size, top2, new SplittableRandom(seed));
+	}
+	
+	private Population(int inputs, int outputs, int size, boolean top2, SplittableRandom random) {
 		this.size = size;
+		this.random = random;
 		population = new GenomeNet[size];
 		
-		LIST_OF_KNOWN_GENES = new ArrayList<>();
+		KNOWN_GENES = new GeneIndex();
 		initialize(inputs, outputs);
 		generation = 0;
 		this.top2 = top2;
@@ -57,7 +132,7 @@ public class Population {
 	 */
 	private void initialize(int inputs, int outputs){
 		for(int x = 0; x < size; x++) {
-			population[x] = new GenomeNet(inputs, outputs, 0, this);
+			population[x] = new GenomeNet(inputs, outputs, 0, this, random.split());
 		}
 	}
 	
@@ -95,70 +170,386 @@ public class Population {
 	}
 	
 	/**
-	 * This method is called by the client typically at the end of a generation's scoring
+	 * Used to calculate a whole list of calculations at once without allocating, split across the worker pool
+	 * @param inputs 2 dimensional array of inputs for the whole population
+	 * @param outputs 2 dimensional array the outputs of the whole population are written into<br><br>
+	 * 
+	 * Every row of outputs must be at least the size of the output layer. The arrays belong to the caller and can be
+	 * reused for every call
+	 */
+	public void calculate(double[][] inputs, double[][] outputs) {
+		
+		prepareNetworks();
+		
+		if(parallelism <= 1 || population.length < PARALLEL_THRESHOLD) {
+			for(int x = 0; x < population.length; x++) {
+				population[x].calculate(inputs[x], outputs[x]);
+			}
+			
+			return;
+		}
+		
+		if(batchRoot == null) batchRoot = new BatchCalculation(parallelism * TASKS_PER_THREAD);
+		
+		batchInputs = inputs;
+		batchOutputs = outputs;
+		
+		batchRoot.reinitialize();
+		getPool().invoke(batchRoot);
+		
+		batchInputs = null;
+		batchOutputs = null;
+	}
+	
+	/**
+	 * Compiles the network of every Genome on the calling thread<br>
+	 * A Genome builds or refreshes its compiled network lazily on its first calculation, which changes the Genome's own
+	 * Genes and lookup tables. Doing this up front leaves calculations that only read each Genome's compiled network, so
+	 * afterwards every Genome can be calculated on any thread, as long as no two threads use the same Genome at the
+	 * same time
+	 */
+	public void prepareNetworks() {
+		for(int x = 0; x < population.length; x++) {
+			population[x].prepareNetwork();
+		}
+	}
+	
+	/**
+	 * Sets how many worker threads are used by the batch calculate method
+	 * @param parallelism Number of threads (1 keeps every calculation on the calling thread)
+	 */
+	public void setParallelism(int parallelism) {
+		if(parallelism < 1) throw new RuntimeException("Parallelism must be at least 1");
+		
+		this.parallelism = parallelism;
+		
+		if(pool != null) pool.shutdown();
+		pool = null;
+		batchRoot = null;
+	}
+	
+	/**
+	 * Sets whether the children of a generation are bred on the worker pool
+	 * @param parallelBreeding If true, crossover and mutation of the children are split across the worker pool
+	 */
+	public void setParallelBreeding(boolean parallelBreeding) {
+		this.parallelBreeding = parallelBreeding;
+	}
+	
+	/**
+	 * Sets the activation function used by the compiled networks of every Genome
+	 * @param activation Activation function (EXACT by default, see Activation for the error of the faster options)
+	 */
+	public void setActivation(Activation activation) {
+		this.activation = activation;
+		invalidateNetworks();
+	}
+	
+	/**
+	 * Sets whether the compiled networks of every Genome evaluate in single precision<br><br>
+	 * 
+	 * The inputs, weights and Node values are rounded to floats, so the outputs can differ from double precision by
+	 * the rounding error of every layer plus the error of the activation function
+	 * @param singlePrecision If true, the Forward Propagation is done with floats
+	 */
+	public void setSinglePrecision(boolean singlePrecision) {
+		this.singlePrecision = singlePrecision;
+		invalidateNetworks();
+	}
+	
+	protected Activation getActivation() {
+		return activation;
+	}
+	
+	protected boolean getSinglePrecision() {
+		return singlePrecision;
+	}
+	
+	private void invalidateNetworks() {
+		//Retired Genomes drop their compiled network when they are reused, so only the current ones are rebuilt
+		for(GenomeNet genome: population) {
+			genome.invalidateNetwork();
+		}
+	}
+	
+	/**
+	 * Sets whether the children of a generation are bred from the packed genetic code of their parents
+	 * @param packedBreeding If true, each parent is packed once per generation and crossover merges the packed arrays
+	 * instead of searching the parents' Gene lists<br><br>
+	 * 
+	 * Packed crossover follows the same rules, but draws its random numbers in Innovation Number order, so the same seed
+	 * breeds different children than the default crossover
+	 */
+	public void setPackedBreeding(boolean packedBreeding) {
+		this.packedBreeding = packedBreeding;
+	}
+	
+	/**
+	 * Getter for the worker pool, which is created the first time it is needed
+	 * @return The Population's worker pool
+	 */
+	private ForkJoinPool getPool() {
+		if(pool == null) pool = new ForkJoinPool(parallelism);
+		return pool;
+	}
+	
+	/**
+	 * {@summary Fork/Join task used by the batch calculate method}<br>
+	 * The root task owns a fixed set of range tasks, which are reset and reused for every call so a batch
+	 * calculation does not allocate any tasks
+	 */
+	private class BatchCalculation extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final int start;
+		private final int end;
+		private final BatchCalculation[] ranges;
+		
+		/**
+		 * Root task, which splits the population into a number of ranges
+		 * @param tasks Number of ranges to split the population into
+		 */
+		BatchCalculation(int tasks) {
+			this.start = 0;
+			this.end = population.length;
+			
+			tasks = Math.min(tasks, population.length);
+			ranges = new BatchCalculation[tasks];
+			
+			for(int x = 0; x < tasks; x++) {
+				ranges[x] = new BatchCalculation((int)((long)population.length * x / tasks), (int)((long)population.length * (x + 1) / tasks));
+			}
+		}
+		
+		/**
+		 * Range task
+		 * @param start First Genome index (inclusive)
+		 * @param end Last Genome index (exclusive)
+		 */
+		BatchCalculation(int start, int end) {
+			this.start = start;
+			this.end = end;
+			this.ranges = null;
+		}
+		
+		@Override
+		protected void compute() {
+			if(ranges != null) {
+				for(BatchCalculation range: ranges) {
+					range.reinitialize();
+				}
+				
+				invokeAll(ranges);
+				return;
+			}
+			
+			for(int x = start; x < end; x++) {
+				population[x].calculate(batchInputs[x], batchOutputs[x]);
+			}
+		}
+	}
+	
+	/**
+	 * {@summary Fork/Join task used by the breed method}<br>
+	 * Every child already has its parents and random stream assigned, so the tasks only run crossover and mutation
+	 */
+	private class BatchBreed extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final int start;
+		private final int end;
+		private final BatchBreed[] ranges;
+		
+		/**
+		 * Root task, which splits the children into a number of ranges
+		 * @param tasks Number of ranges to split the children into
+		 * @param start First child index (inclusive)
+		 * @param end Last child index (exclusive)
+		 */
+		BatchBreed(int tasks, int start, int end) {
+			this.start = start;
+			this.end = end;
+			
+			tasks = Math.max(Math.min(tasks, end - start), 1);
+			ranges = new BatchBreed[tasks];
+			
+			for(int x = 0; x < tasks; x++) {
+				ranges[x] = new BatchBreed(start + (int)((long)(end - start) * x / tasks), start + (int)((long)(end - start) * (x + 1) / tasks));
+			}
+		}
+		
+		/**
+		 * Range task
+		 * @param start First child index (inclusive)
+		 * @param end Last child index (exclusive)
+		 */
+		BatchBreed(int start, int end) {
+			this.start = start;
+			this.end = end;
+			this.ranges = null;
+		}
+		
+		@Override
+		protected void compute() {
+			if(ranges != null) {
+				invokeAll(ranges);
+				return;
+			}
+			
+			for(int x = start; x < end; x++) {
+				breedChild(x);
+			}
+		}
+	}
+	
+	/**
+	 * This method is called by the client typically at the end of a generation's scoring<br><br>
 	 * 
+	 * The Genomes of the generation before the one being replaced are reused for the new children, so the Client should
+	 * not hold on to a Genome for more than one generation after it was replaced
 	 */
 	public void breed() {
 		
-		sortByFitness();
+		int poolSize = (int)(population.length * breedPool);
+		
+		//Only the breeding pool has to be in order, the rest of the population is never looked at
+		rankByFitness(top2 ? 2 : poolSize);
+		
+		GenomeNet best = population[ranking[0]];
+		PackedGenome elite = PackedGenome.encode(best);
 		
 		GenomeNet[] newPopulation = new GenomeNet[population.length];
-		newPopulation[0] = new GenomeNet(inputs, outputs, population[getHighestIndex()].getGeneticCode(), this);
-		newPopulation[1] = new GenomeNet(inputs, outputs, population[getHighestIndex()].getGeneticCode(), this);
+		newPopulation[0] = best.unpack(elite, 0, random.split(), getRetired(0));
+		newPopulation[1] = best.unpack(elite, 0, random.split(), getRetired(1));
 		
 		newPopulation[1].trueMutate();
 		
+		//Parents and random streams are assigned in index order before any child is bred, so the children do not
+		//depend on the order they are bred in
+		breedChildren = newPopulation;
+		breedFirstParents = new GenomeNet[population.length];
+		breedSecondParents = new GenomeNet[population.length];
+		breedStreams = new SplittableRandom[population.length];
+		breedFirstPacked = packedBreeding ? new PackedGenome[population.length] : null;
+		breedSecondPacked = packedBreeding ? new PackedGenome[population.length] : null;
+		
 		if(!top2) {
-			GenomeNet[] breedingPool = new GenomeNet[(int)(population.length * breedPool)];
+			GenomeNet[] breedingPool = new GenomeNet[poolSize];
+			PackedGenome[] packedPool = new PackedGenome[poolSize];
 			for(int x = 0; x < breedingPool.length; x++) {
-				breedingPool[x] = population[x];
+				breedingPool[x] = population[ranking[x]];
+				breedingPool[x].refreshTopology();
+				
+				if(packedBreeding) packedPool[x] = x == 0 ? elite : PackedGenome.encode(breedingPool[x]);
 			}
 			
 			//System.out.println(breedingPool.length);
 			
 			int range = breedingPool.length - 1;
 			
-			for(int x = 2; x < 4; x++) {
-				newPopulation[x] = breedingPool[0].crossover(breedingPool[1], generation);
-				newPopulation[x].mutate();
-			}
-			
-			for(int x = 4; x < population.length; x++) {
+			for(int x = 2; x < population.length; x++) {
+				breedStreams[x] = random.split();
 				
-				int rand1 = getRandom(range);
-				int rand2 = getRandom(range);
+				int first = 0;
+				int second = 1;
 				
-				GenomeNet p1 = breedingPool[rand1];
-				GenomeNet p2 = breedingPool[rand2];
+				if(x >= 4) {
+					first = getRandom(range, breedStreams[x]);
+					second = getRandom(range, breedStreams[x]);
+				}
 				
-				newPopulation[x] = p1.crossover(p2, generation);
-				newPopulation[x].mutate();
+				breedFirstParents[x] = breedingPool[first];
+				breedSecondParents[x] = breedingPool[second];
 				
+				if(packedBreeding) {
+					breedFirstPacked[x] = packedPool[first];
+					breedSecondPacked[x] = packedPool[second];
+				}
 			}
 			
+		} else {
+			GenomeNet first = population[ranking[0]];
+			GenomeNet second = population[ranking[1]];
+			
+			first.refreshTopology();
+			second.refreshTopology();
+			
+			PackedGenome secondPacked = packedBreeding ? PackedGenome.encode(second) : null;
+			
+			for(int x = 2; x < population.length; x++) {
+				breedStreams[x] = random.split();
+				breedFirstParents[x] = first;
+				breedSecondParents[x] = second;
+				
+				if(packedBreeding) {
+					breedFirstPacked[x] = elite;
+					breedSecondPacked[x] = secondPacked;
+				}
+			}
+		}
+		
+		//Crossover only reads the parents and the Gene registry is synchronized, so the children can be bred in any order
+		if(parallelBreeding && parallelism > 1 && population.length >= PARALLEL_THRESHOLD) {
+			getPool().invoke(new BatchBreed(parallelism * TASKS_PER_THREAD, 2, population.length));
 		} else {
 			for(int x = 2; x < population.length; x++) {
-				newPopulation[x] = population[0].crossover(population[1], generation);
-				newPopulation[x].mutate();
+				breedChild(x);
 			}
 		}
 		
+		breedChildren = null;
+		breedFirstParents = null;
+		breedSecondParents = null;
+		breedStreams = null;
+		breedFirstPacked = null;
+		breedSecondPacked = null;
+		
 		generation++;
 		
 		//System.out.println(generation + "\n");
 		
+		//The old generation is kept for one breed before its Genomes and Genes are reused, instead of being thrown away
+		this.retired = population;
 		this.population = newPopulation;
+		invalidateRanking();
+	}
+	
+	/**
+	 * Gets the retired Genome that the Genome at an index can reuse
+	 * @param index Index in the new population
+	 * @return The retired Genome, or null if there is none yet
+	 */
+	private GenomeNet getRetired(int index) {
+		if(retired == null) return null;
+		
+		return retired[index];
+	}
+	
+	/**
+	 * Breeds and mutates a single child from the parents assigned to it
+	 * @param index Index of the child in the new population
+	 */
+	private void breedChild(int index) {
+		if(breedFirstPacked != null) {
+			PackedGenome child = PackedGenome.crossover(breedFirstPacked[index], breedSecondPacked[index], breedStreams[index]);
+			breedChildren[index] = breedFirstParents[index].unpack(child, generation + 1, breedStreams[index], getRetired(index));
+		} else {
+			breedChildren[index] = breedFirstParents[index].crossover(breedSecondParents[index], generation, breedStreams[index], getRetired(index));
+		}
 		
-		System.gc();
+		breedChildren[index].mutate();
 	}
 	
 	/**
 	 * Used by the Population class to get a random number
 	 * @param Max possible value
+	 * @param random Random stream to draw from
 	 * @return Random number
 	 */
-	private int getRandom(int range) {
-		return (int)Math.round(range * Math.random());
+	private int getRandom(int range, SplittableRandom random) {
+		return (int)Math.round(range * random.nextDouble());
 	}
 	
 	/**
@@ -170,21 +561,133 @@ public class Population {
 	}
 	
 	/**
-	 * Used by the Population class to sort the Genome array by Fitness
+	 * Called by the Genomes whenever their fitness changes, so the next ranking is computed again
 	 */
-	private void sortByFitness() {
-		boolean sort = false;
-		while(!sort) {
-			sort = true;
-			for(int x = 0; x < population.length - 1; x++) {
-				if(population[x].getFitness() < population[x + 1].getFitness()) {
-					GenomeNet placeHold = population[x];
-					this.population[x] = population[x + 1];
-					this.population[x + 1] = placeHold;
-					sort = false;
-				}
+	protected void invalidateRanking() {
+		rankedCount = 0;
+	}
+	
+	/**
+	 * Used by the Population class to rank the Genomes by Fitness<br>
+	 * The population array itself is left untouched, only the ranking array is reordered. The best Genomes are
+	 * separated from the rest with a quickselect and only they are sorted, and the result is kept until a fitness changes
+	 * @param count How many of the best Genomes have to be in order
+	 */
+	private void rankByFitness(int count) {
+		count = Math.min(count, population.length);
+		if(rankedCount >= count) return;
+		
+		if(ranking == null || ranking.length != population.length) {
+			ranking = new int[population.length];
+			rankFitness = new double[population.length];
+			
+			for(int x = 0; x < ranking.length; x++) {
+				ranking[x] = x;
+			}
+		}
+		
+		for(int x = 0; x < population.length; x++) {
+			rankFitness[x] = population[x].getFitness();
+		}
+		
+		if(count < ranking.length) selectBest(count);
+		sortRange(0, count - 1);
+		
+		rankedCount = count;
+	}
+	
+	/**
+	 * Determines whether one Genome ranks before another
+	 * @param a Index of the first Genome
+	 * @param b Index of the second Genome
+	 * @return Returns true if Genome a has the higher fitness, or the same fitness and the lower index
+	 */
+	private boolean ranksBefore(int a, int b) {
+		int compare = Double.compare(rankFitness[a], rankFitness[b]);
+		if(compare != 0) return compare > 0;
+		
+		return a < b;
+	}
+	
+	/**
+	 * Reorders the ranking array so the first entries are the best Genomes, in no particular order
+	 * @param count Number of Genomes to move to the front
+	 */
+	private void selectBest(int count) {
+		int lo = 0;
+		int hi = ranking.length - 1;
+		
+		while(lo < hi) {
+			int pivot = partition(lo, hi);
+			
+			if(pivot == count - 1 || pivot == count) return;
+			
+			if(pivot < count) lo = pivot + 1;
+			else hi = pivot - 1;
+		}
+	}
+	
+	/**
+	 * Sorts part of the ranking array
+	 * @param lo First position (inclusive)
+	 * @param hi Last position (inclusive)
+	 */
+	private void sortRange(int lo, int hi) {
+		while(hi - lo >= INSERTION_SORT_SIZE) {
+			int pivot = partition(lo, hi);
+			
+			//Recurse into the smaller side so the stack stays shallow
+			if(pivot - lo < hi - pivot) {
+				sortRange(lo, pivot - 1);
+				lo = pivot + 1;
+			} else {
+				sortRange(pivot + 1, hi);
+				hi = pivot - 1;
 			}
 		}
+		
+		for(int x = lo + 1; x <= hi; x++) {
+			int index = ranking[x];
+			int y = x - 1;
+			
+			while(y >= lo && ranksBefore(index, ranking[y])) {
+				ranking[y + 1] = ranking[y];
+				y--;
+			}
+			
+			ranking[y + 1] = index;
+		}
+	}
+	
+	/**
+	 * Partitions part of the ranking array around the median of its first, middle and last entries
+	 * @param lo First position (inclusive)
+	 * @param hi Last position (inclusive)
+	 * @return Final position of the pivot, everything before it ranks before the pivot and everything after ranks after
+	 */
+	private int partition(int lo, int hi) {
+		int mid = (lo + hi) >>> 1;
+		
+		if(ranksBefore(ranking[mid], ranking[lo])) swapRanks(mid, lo);
+		if(ranksBefore(ranking[hi], ranking[lo])) swapRanks(hi, lo);
+		if(ranksBefore(ranking[mid], ranking[hi])) swapRanks(mid, hi);
+		
+		int pivot = ranking[hi];
+		int store = lo;
+		
+		for(int x = lo; x < hi; x++) {
+			if(ranksBefore(ranking[x], pivot)) swapRanks(x, store++);
+		}
+		
+		swapRanks(store, hi);
+		
+		return store;
+	}
+	
+	private void swapRanks(int a, int b) {
+		int placeHold = ranking[a];
+		ranking[a] = ranking[b];
+		ranking[b] = placeHold;
 	}
 	
 	/**
@@ -192,8 +695,7 @@ public class Population {
 	 * @return Best Genome of this generation
 	 */
 	public GenomeNet getHighestFitness() {
-		this.sortByFitness();
-		GenomeNet ret = population[0];
+		GenomeNet ret = population[getHighestIndex()];
 		
 		return ret;
 	}
@@ -202,10 +704,9 @@ public class Population {
 	 * Test Method for determining the Genetic makeup of a generation
 	 */
 	public void testGeneticDiversity() {
-		sortByFitness();
-		GenomeNet test = population[0];
+		GenomeNet test = population[getHighestIndex()];
 		
-		System.out.printf("Total Known Genes: %d vs Genes in final Genome: %d%n", this.LIST_OF_KNOWN_GENES.size(), test.allGenes.size());
+		System.out.printf("Total Known Genes: %d vs Genes in final Genome: %d%n", this.KNOWN_GENES.size(), test.allGenes.size());
 		
 		int count = 0;
 		for(Gene n: test.allGenes) {
@@ -261,17 +762,9 @@ public class Population {
 	 * @return Genome Index
 	 */
 	public int getHighestIndex() {
-		double topFitness = population[0].getFitness();
-		int index = 0;
-		
-		for(int x = 1; x < population.length; x++) {
-			if(population[x].getFitness() > topFitness) {
-				topFitness = population[x].getFitness();
-				index = x;
-			}
-		}
+		rankByFitness(1);
 		
-		return index;
+		return ranking[0];
 	}
 	
 	/**